@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+/**
+ * 基准测试中覆盖区间的密度
+ */
+public enum Density {
+
+    /**
+     * 覆盖个数为日历的1%
+     */
+    SPARSE,
+
+    /**
+     * 覆盖个数与日历相同
+     */
+    DENSE
+}
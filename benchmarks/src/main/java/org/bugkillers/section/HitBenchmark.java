@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.bugkillers.section.SectionUtil.toEpochDay;
+
+/**
+ * hit 各重载的基准测试，每次调用查询 {@link #PROBES} 个随机日期，结果按单次查询计
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HitBenchmark {
+
+    /**
+     * 每次调用的查询个数
+     */
+    static final int PROBES = 256;
+
+    /**
+     * 区间查询的跨度（天）
+     */
+    private static final int RANGE_DAYS = 7;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"SORTED", "SHUFFLED"})
+    public Layout layout;
+
+    /**
+     * 连续多少个区间数据相同
+     */
+    @Param({"1", "16"})
+    public int runs;
+
+    private List<Section<Integer>> calendar;
+
+    private SectionIndex<Integer> index;
+
+    private int[] starts;
+
+    private int[] ends;
+
+    private Integer[] results;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        calendar = SectionWorkloads.calendar(size, runs, layout, 17L);
+        index = SectionIndex.build(calendar);
+        starts = SectionWorkloads.dates(calendar, PROBES, 43L);
+        ends = new int[PROBES];
+        int last = toEpochDay(SectionWorkloads.lastDate(calendar));
+        for (int i = 0; i < PROBES; i++) {
+            ends[i] = fromEpochDay(Math.min(toEpochDay(starts[i]) + RANGE_DAYS - 1, last));
+        }
+        results = new Integer[PROBES];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void hitList(Blackhole blackhole) {
+        for (int i = 0; i < PROBES; i++) {
+            blackhole.consume(Section.hit(calendar, starts[i], ends[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void hitListByComparator(Blackhole blackhole) {
+        for (int i = 0; i < PROBES; i++) {
+            blackhole.consume(Section.hit(calendar, SectionWorkloads.COMPARATOR, starts[i], ends[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void hitIndex(Blackhole blackhole) {
+        for (int i = 0; i < PROBES; i++) {
+            blackhole.consume(Section.hit(index, starts[i], ends[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void hitIndexByComparator(Blackhole blackhole) {
+        for (int i = 0; i < PROBES; i++) {
+            blackhole.consume(Section.hit(index, SectionWorkloads.COMPARATOR, starts[i], ends[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public Integer[] hitBatch() {
+        Section.hit(calendar, starts, results);
+        return results;
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+/**
+ * 基准测试中区间的排列方式
+ */
+public enum Layout {
+
+    /**
+     * 按左端点排序
+     */
+    SORTED,
+
+    /**
+     * 乱序
+     */
+    SHUFFLED
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * merge 各重载的基准测试
+ * <p/>
+ * calendar为首尾相连的日历，overrides为随机落在日历范围内的覆盖区间
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MergeBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"SORTED", "SHUFFLED"})
+    public Layout layout;
+
+    @Param({"SPARSE", "DENSE"})
+    public Density density;
+
+    /**
+     * 连续多少个区间数据相同
+     */
+    @Param({"1", "16"})
+    public int runs;
+
+    private List<Section<Integer>> calendar;
+
+    private List<Section<Integer>> overrides;
+
+    private Section<Integer> override;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        calendar = SectionWorkloads.calendar(size, runs, layout, 17L);
+        overrides = SectionWorkloads.overrides(calendar, density, 31L);
+        override = overrides.get(0);
+    }
+
+    @Benchmark
+    public List<Section<Integer>> mergeLists() {
+        return Section.merge(calendar, overrides);
+    }
+
+    @Benchmark
+    public List<Section<Integer>> mergeListsWithoutSelf() {
+        return Section.merge(calendar, overrides, false);
+    }
+
+    @Benchmark
+    public List<Section<Integer>> mergeSelf() {
+        return Section.merge(Collections.<Section<Integer>>emptyList(), calendar);
+    }
+
+    @Benchmark
+    public List<Section<Integer>> mergeListAndSection() {
+        return Section.merge(calendar, override, true);
+    }
+
+    @Benchmark
+    public List<Section<Integer>> mergeSectionAndList() {
+        return Section.merge(override, calendar, true);
+    }
+}
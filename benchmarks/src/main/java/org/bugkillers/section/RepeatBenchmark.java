@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * hasRepeat 的基准测试
+ * <p/>
+ * calendar不重复，需要检查完所有区间；withRepeat在日历末尾追加一个重复区间
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepeatBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"SORTED", "SHUFFLED"})
+    public Layout layout;
+
+    @SuppressWarnings("rawtypes")
+    private List<Section> calendar;
+
+    @SuppressWarnings("rawtypes")
+    private List<Section> withRepeat;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Section<Integer>> sections = SectionWorkloads.calendar(size, 1, layout, 17L);
+        calendar = Lists.<Section>newArrayList(sections);
+        withRepeat = Lists.<Section>newArrayList(sections);
+        withRepeat.add(sections.get(sections.size() / 2));
+    }
+
+    @Benchmark
+    public boolean hasRepeat() {
+        return Section.hasRepeat(calendar);
+    }
+
+    @Benchmark
+    public boolean hasRepeatFound() {
+        return Section.hasRepeat(withRepeat);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个Section的基准测试：build、connect 和两个Section的merge
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SectionBenchmark {
+
+    private final Integer data = 1;
+
+    private final Integer otherData = 2;
+
+    private final Section<Integer> january = Section.build(20160101, 20160131, data, SectionWorkloads.COMPARATOR);
+
+    private final Section<Integer> february = Section.build(20160201, 20160229, data, SectionWorkloads.COMPARATOR);
+
+    private final Section<Integer> march = Section.build(20160301, 20160331, otherData,
+            SectionWorkloads.COMPARATOR);
+
+    private final Section<Integer> midJanuary = Section.build(20160110, 20160120, otherData,
+            SectionWorkloads.COMPARATOR);
+
+    private final Section<Integer> lateJanuary = Section.build(20160120, 20160210, otherData,
+            SectionWorkloads.COMPARATOR);
+
+    @Benchmark
+    public Section<Integer> build() {
+        return Section.build(20160101, 20160131, data, SectionWorkloads.COMPARATOR);
+    }
+
+    @Benchmark
+    public Section<Integer> connect() {
+        return Section.connect(january, february);
+    }
+
+    /**
+     * 相连且数据相同
+     */
+    @Benchmark
+    public List<Section<Integer>> mergeConnected() {
+        return Section.merge(january, february);
+    }
+
+    /**
+     * 不相交
+     */
+    @Benchmark
+    public List<Section<Integer>> mergeDisjoint() {
+        return Section.merge(january, march);
+    }
+
+    /**
+     * 被包含，拆分为三段
+     */
+    @Benchmark
+    public List<Section<Integer>> mergeContained() {
+        return Section.merge(january, midJanuary);
+    }
+
+    /**
+     * 部分相交，数据不同
+     */
+    @Benchmark
+    public List<Section<Integer>> mergeIntersected() {
+        return Section.merge(january, lateJanuary);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SectionUtil 日期函数的基准测试，每次调用处理 {@link #DATES} 个随机日期，结果按单个日期计
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SectionUtilBenchmark {
+
+    /**
+     * 每次调用处理的日期个数
+     */
+    static final int DATES = 1024;
+
+    private int[] dates;
+
+    private int[] nextDates;
+
+    private int[] epochDays;
+
+    private int[] invalidDates;
+
+    private String[] texts;
+
+    private DateTime[] dateTimes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        List<Section<Integer>> calendar = SectionWorkloads.calendar(1000, 1, Layout.SORTED, 17L);
+        dates = SectionWorkloads.dates(calendar, DATES, 43L);
+
+        Random random = new Random(59L);
+        nextDates = new int[DATES];
+        epochDays = new int[DATES];
+        invalidDates = new int[DATES];
+        texts = new String[DATES];
+        dateTimes = new DateTime[DATES];
+        for (int i = 0; i < DATES; i++) {
+            epochDays[i] = SectionUtil.toEpochDay(dates[i]);
+            nextDates[i] = SectionUtil.fromEpochDay(epochDays[i] + random.nextInt(2));
+            //月份或日期非法
+            invalidDates[i] = dates[i] / 10000 * 10000 + (random.nextBoolean() ? 1332 : 230);
+            texts[i] = String.valueOf(dates[i]);
+            dateTimes[i] = SectionUtil.stringDateParseDateTime(texts[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void isDate(Blackhole blackhole) {
+        for (int i = 0; i < DATES; i++) {
+            blackhole.consume(SectionUtil.isDate(dates[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void isDateInvalid(Blackhole blackhole) {
+        for (int i = 0; i < DATES; i++) {
+            blackhole.consume(SectionUtil.isDate(invalidDates[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void isDateContinuous(Blackhole blackhole) {
+        for (int i = 0; i < DATES; i++) {
+            blackhole.consume(SectionUtil.isDateContinuous(dates[i], nextDates[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void decreaseByDays(Blackhole blackhole) {
+        for (int i = 0; i < DATES; i++) {
+            blackhole.consume(SectionUtil.decreaseByDays(dates[i], 1));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void decreaseByDaysDateTime(Blackhole blackhole) {
+        for (int i = 0; i < DATES; i++) {
+            blackhole.consume(SectionUtil.decreaseByDays(dateTimes[i], 1));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void stringDateParseDateTime(Blackhole blackhole) {
+        for (int i = 0; i < DATES; i++) {
+            blackhole.consume(SectionUtil.stringDateParseDateTime(texts[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void toEpochDay(Blackhole blackhole) {
+        for (int i = 0; i < DATES; i++) {
+            blackhole.consume(SectionUtil.toEpochDay(dates[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void fromEpochDay(Blackhole blackhole) {
+        for (int i = 0; i < DATES; i++) {
+            blackhole.consume(SectionUtil.fromEpochDay(epochDays[i]));
+        }
+    }
+}
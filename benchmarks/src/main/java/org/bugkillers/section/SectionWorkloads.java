@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.bugkillers.section.SectionUtil.toEpochDay;
+
+/**
+ * 基准测试的数据构造（固定随机种子，每次运行数据一致）
+ */
+final class SectionWorkloads {
+
+    /**
+     * 日历起点
+     */
+    static final int FIRST_DATE = 10000101;
+
+    /**
+     * 可用的总天数（留出余量，保证1M个区间也不会超出最大年份）
+     */
+    private static final int TOTAL_DAYS = 3000000;
+
+    /**
+     * 数据比较器
+     */
+    static final Comparator<Integer> COMPARATOR = Ordering.natural();
+
+    private SectionWorkloads() {
+
+    }
+
+    /**
+     * 首尾相连、互不重复的日历
+     *
+     * @param size    区间个数
+     * @param runs    连续多少个区间数据相同
+     * @param layout
+     * @param seed
+     * @return
+     */
+    static List<Section<Integer>> calendar(int size, int runs, Layout layout, long seed) {
+
+        Random random = new Random(seed);
+        int maxLength = maxLength(size);
+
+        List<Section<Integer>> sections = Lists.newArrayListWithCapacity(size);
+        int day = toEpochDay(FIRST_DATE);
+        for (int i = 0; i < size; i++) {
+            int end = day + random.nextInt(maxLength);
+            sections.add(Section.build(fromEpochDay(day), fromEpochDay(end), i / runs, COMPARATOR));
+            day = end + 1;
+        }
+
+        if (layout == Layout.SHUFFLED) {
+            Collections.shuffle(sections, random);
+        }
+        return sections;
+    }
+
+    /**
+     * 落在日历范围内的覆盖区间（可能互相重复，按生成顺序排列）
+     *
+     * @param calendar
+     * @param density
+     * @param seed
+     * @return
+     */
+    static List<Section<Integer>> overrides(List<Section<Integer>> calendar, Density density, long seed) {
+
+        Random random = new Random(seed);
+        int size = density == Density.DENSE ? calendar.size() : Math.max(1, calendar.size() / 100);
+
+        int first = toEpochDay(FIRST_DATE);
+        int span = toEpochDay(lastDate(calendar)) - first + 1;
+        int maxLength = maxLength(calendar.size()) * 3;
+
+        List<Section<Integer>> sections = Lists.newArrayListWithCapacity(size);
+        for (int i = 0; i < size; i++) {
+            int start = first + random.nextInt(span);
+            int end = Math.min(start + random.nextInt(maxLength), first + span - 1);
+            sections.add(Section.build(fromEpochDay(start), fromEpochDay(end), -1 - random.nextInt(16), COMPARATOR));
+        }
+        return sections;
+    }
+
+    /**
+     * 日历范围内的随机日期
+     *
+     * @param calendar
+     * @param count
+     * @param seed
+     * @return
+     */
+    static int[] dates(List<Section<Integer>> calendar, int count, long seed) {
+
+        Random random = new Random(seed);
+        int first = toEpochDay(FIRST_DATE);
+        int span = toEpochDay(lastDate(calendar)) - first + 1;
+
+        int[] dates = new int[count];
+        for (int i = 0; i < count; i++) {
+            dates[i] = fromEpochDay(first + random.nextInt(span));
+        }
+        return dates;
+    }
+
+    /**
+     * 日历的最后一天
+     *
+     * @param calendar
+     * @return
+     */
+    static int lastDate(List<Section<Integer>> calendar) {
+        int last = FIRST_DATE;
+        for (Section<Integer> section : calendar) {
+            last = Math.max(last, section.getUpperPoint());
+        }
+        return last;
+    }
+
+    private static int maxLength(int size) {
+        return Math.max(1, Math.min(5, TOTAL_DAYS / 2 / size));
+    }
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.bugkillers.section.SectionUtil.isDate;
+import static org.bugkillers.section.SectionUtil.toEpochDay;
+
+/**
+ * 列式存储的区间集合（不可变）
+ * <p/>
+ * 按左端点排序、合并后的区间拆成三个int数组存放：左端点、右端点（epoch day）和数据id，
+ * 数据存放在共享的{@link SectionDictionary}中，所有区间共用字典作为比较器。
+ * 数据相同的相邻区间总是合并在一起。
+ */
+public final class CompactSectionList<T> {
+
+    /**
+     * 左端点（epoch day，升序）
+     */
+    private final int[] starts;
+
+    /**
+     * 右端点（epoch day）
+     */
+    private final int[] ends;
+
+    /**
+     * 数据id
+     */
+    private final int[] dataIds;
+
+    /**
+     * 区间个数
+     */
+    private final int size;
+
+    /**
+     * 数据字典
+     */
+    private final SectionDictionary<T> dictionary;
+
+    /**
+     * 由Section集合构造（先自己跟自己merge），区间的比较器为字典时使用该字典，否则使用新的字典
+     *
+     * @param source
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompactSectionList<T> of(List<Section<T>> source) {
+
+        checkArgument(CollectionUtils.isNotEmpty(source), "source can't be empty");
+
+        Comparator<T> comparator = source.get(0).getComparator();
+        return of(source, comparator instanceof SectionDictionary ? (SectionDictionary<T>) comparator
+                : SectionDictionary.create(comparator));
+    }
+
+    /**
+     * 由Section集合构造（先自己跟自己merge），数据放入指定字典
+     *
+     * @param source
+     * @param dictionary
+     * @param <T>
+     * @return
+     */
+    public static <T> CompactSectionList<T> of(List<Section<T>> source, SectionDictionary<T> dictionary) {
+
+        checkArgument(CollectionUtils.isNotEmpty(source), "source can't be empty");
+        checkArgument(dictionary != null, "dictionary can't be null");
+
+        List<Section<T>> merged = Section.merge((Section<T>) null, source, true);
+
+        Builder<T> builder = new Builder<>(dictionary, merged.size());
+        for (Section<T> section : merged) {
+            builder.add(toEpochDay(section.getLowerPoint()), toEpochDay(section.getUpperPoint()),
+                    dictionary.intern(section.getData()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 根据日期命中一条数据，不存在返回null
+     *
+     * @param date
+     * @return
+     */
+    public T hit(int date) {
+
+        if (!isDate(date)) {
+            return null;
+        }
+
+        int epochDay = toEpochDay(date);
+        int i = floor(epochDay);
+        return i >= 0 && epochDay <= ends[i] ? dictionary.get(dataIds[i]) : null;
+    }
+
+    /**
+     * 用target覆盖当前集合，返回新集合，O(n+m)
+     *
+     * @param target
+     * @return
+     */
+    public CompactSectionList<T> merge(List<Section<T>> target) {
+        checkArgument(CollectionUtils.isNotEmpty(target), "target can't be empty");
+        return merge(of(target, dictionary));
+    }
+
+    /**
+     * 用target覆盖当前集合，返回新集合，O(n+m)
+     * <p/>
+     * target使用其他字典时，数据重新放入当前字典
+     *
+     * @param target
+     * @return
+     */
+    public CompactSectionList<T> merge(CompactSectionList<T> target) {
+
+        checkArgument(target != null, "target can't be null");
+
+        int[] targetIds = dataIds(target);
+
+        Builder<T> builder = new Builder<>(dictionary, size + 2 * target.size);
+
+        //被target覆盖后，当前区间剩余部分的起点
+        int clip = Integer.MIN_VALUE;
+        int i = 0;
+
+        for (int j = 0; j < target.size; j++) {
+            int targetStart = target.starts[j];
+            int targetEnd = target.ends[j];
+
+            //target之前的部分
+            while (i < size && ends[i] < targetStart) {
+                builder.add(Math.max(starts[i], clip), ends[i], dataIds[i]);
+                i++;
+            }
+            if (i < size && Math.max(starts[i], clip) < targetStart) {
+                builder.add(Math.max(starts[i], clip), targetStart - 1, dataIds[i]);
+            }
+
+            builder.add(targetStart, targetEnd, targetIds[j]);
+            clip = targetEnd + 1;
+
+            //跳过被完全覆盖的部分
+            while (i < size && ends[i] <= targetEnd) {
+                i++;
+            }
+        }
+
+        for (; i < size; i++) {
+            builder.add(Math.max(starts[i], clip), ends[i], dataIds[i]);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * 把other接在当前集合之后，返回新集合，O(n+m)
+     * <p/>
+     * other的第一个区间必须在当前集合的最后一个区间之后，边界上相连且数据相同的两个区间合并为一个
+     *
+     * @param other
+     * @return
+     */
+    public CompactSectionList<T> connect(CompactSectionList<T> other) {
+
+        checkArgument(other != null, "other can't be null");
+        checkArgument(ends[size - 1] < other.starts[0],
+                "other must be after this, now is %s and %s", fromEpochDay(ends[size - 1]),
+                fromEpochDay(other.starts[0]));
+
+        int[] otherIds = dataIds(other);
+
+        Builder<T> builder = new Builder<>(dictionary, size + other.size);
+        for (int i = 0; i < size; i++) {
+            builder.add(starts[i], ends[i], dataIds[i]);
+        }
+        for (int j = 0; j < other.size; j++) {
+            builder.add(other.starts[j], other.ends[j], otherIds[j]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 转换为Section集合（按左端点排序）
+     *
+     * @return
+     */
+    public List<Section<T>> toList() {
+        List<Section<T>> list = Lists.newArrayListWithCapacity(size);
+        for (int i = 0; i < size; i++) {
+            list.add(Section.buildCanonical(fromEpochDay(starts[i]), fromEpochDay(ends[i]),
+                    dictionary.get(dataIds[i]), dictionary));
+        }
+        return list;
+    }
+
+    /**
+     * 区间个数
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 第i个区间的左端点（yyyyMMdd）
+     *
+     * @param i
+     * @return
+     */
+    public int getLowerPoint(int i) {
+        checkArgument(i >= 0 && i < size, "index out of range");
+        return fromEpochDay(starts[i]);
+    }
+
+    /**
+     * 第i个区间的右端点（yyyyMMdd）
+     *
+     * @param i
+     * @return
+     */
+    public int getUpperPoint(int i) {
+        checkArgument(i >= 0 && i < size, "index out of range");
+        return fromEpochDay(ends[i]);
+    }
+
+    /**
+     * 第i个区间的数据id
+     *
+     * @param i
+     * @return
+     */
+    public int getDataId(int i) {
+        checkArgument(i >= 0 && i < size, "index out of range");
+        return dataIds[i];
+    }
+
+    /**
+     * 第i个区间的左端点（epoch day）
+     */
+    int startDay(int i) {
+        return starts[i];
+    }
+
+    /**
+     * 第i个区间的右端点（epoch day）
+     */
+    int endDay(int i) {
+        return ends[i];
+    }
+
+    /**
+     * 数据字典
+     *
+     * @return
+     */
+    public SectionDictionary<T> dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * other的数据id，other使用其他字典时数据重新放入当前字典
+     */
+    private int[] dataIds(CompactSectionList<T> other) {
+
+        if (other.dictionary == dictionary) {
+            return other.dataIds;
+        }
+
+        int[] ids = new int[other.size];
+        int[] remap = new int[other.dictionary.size()];
+        Arrays.fill(remap, -1);
+        for (int j = 0; j < other.size; j++) {
+            int id = other.dataIds[j];
+            if (remap[id] < 0) {
+                remap[id] = dictionary.intern(other.dictionary.get(id));
+            }
+            ids[j] = remap[id];
+        }
+        return ids;
+    }
+
+    /**
+     * 左端点小于等于epochDay的最后一个区间下标，不存在返回-1
+     */
+    private int floor(int epochDay) {
+        return SectionUtil.floor(starts, size, epochDay);
+    }
+
+    private CompactSectionList(int[] starts, int[] ends, int[] dataIds, int size, SectionDictionary<T> dictionary) {
+        this.starts = starts;
+        this.ends = ends;
+        this.dataIds = dataIds;
+        this.size = size;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * 按左端点顺序追加区间，相连且数据相同的区间自动合并
+     */
+    static final class Builder<T> {
+
+        private final SectionDictionary<T> dictionary;
+
+        private int[] starts;
+
+        private int[] ends;
+
+        private int[] dataIds;
+
+        private int size;
+
+        Builder(SectionDictionary<T> dictionary, int capacity) {
+            this.dictionary = dictionary;
+            capacity = Math.max(capacity, 4);
+            this.starts = new int[capacity];
+            this.ends = new int[capacity];
+            this.dataIds = new int[capacity];
+        }
+
+        /**
+         * 追加区间，start必须大于上一个区间的end
+         */
+        void add(int start, int end, int dataId) {
+
+            if (size > 0 && ends[size - 1] + 1 == start && dataIds[size - 1] == dataId) {
+                ends[size - 1] = end;
+                return;
+            }
+
+            if (size == starts.length) {
+                int capacity = size * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                dataIds = Arrays.copyOf(dataIds, capacity);
+            }
+
+            starts[size] = start;
+            ends[size] = end;
+            dataIds[size] = dataId;
+            size++;
+        }
+
+        /**
+         * 构造集合，数组截断到实际大小
+         */
+        CompactSectionList<T> build() {
+            return new CompactSectionList<>(trim(starts), trim(ends), trim(dataIds), size, dictionary);
+        }
+
+        private int[] trim(int[] array) {
+            return array.length == size ? array : Arrays.copyOf(array, size);
+        }
+    }
+}
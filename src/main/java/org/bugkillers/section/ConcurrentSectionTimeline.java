@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 线程安全的区间时间线（写时复制）
+ * <p/>
+ * 读操作直接读取当前快照，不加锁；写操作基于当前快照构造新快照（共享未受影响的块），CAS发布。
+ * 读者只会看到完整apply之前或之后的快照。
+ */
+public final class ConcurrentSectionTimeline<T> {
+
+    /**
+     * 当前快照
+     */
+    private final AtomicReference<SectionSnapshot<T>> current;
+
+    /**
+     * 构造空的时间线
+     *
+     * @param <T>
+     * @return
+     */
+    public static <T> ConcurrentSectionTimeline<T> create() {
+        return new ConcurrentSectionTimeline<>(SectionSnapshot.<T>empty());
+    }
+
+    /**
+     * 由Section集合构造时间线（先自己跟自己merge）
+     *
+     * @param source
+     * @param <T>
+     * @return
+     */
+    public static <T> ConcurrentSectionTimeline<T> of(List<Section<T>> source) {
+        return new ConcurrentSectionTimeline<>(SectionSnapshot.of(source));
+    }
+
+    /**
+     * 当前快照（不可变）
+     *
+     * @return
+     */
+    public SectionSnapshot<T> snapshot() {
+        return current.get();
+    }
+
+    /**
+     * 根据日期命中一条数据，不存在返回null
+     *
+     * @param date
+     * @return
+     */
+    public T hit(int date) {
+        return current.get().hit(date);
+    }
+
+    /**
+     * 用target覆盖时间线
+     *
+     * @param target
+     * @return 发布的新快照
+     */
+    public SectionSnapshot<T> apply(Section<T> target) {
+
+        checkArgument(target != null, "target can't be null");
+
+        while (true) {
+            SectionSnapshot<T> snapshot = current.get();
+            SectionSnapshot<T> next = snapshot.apply(target);
+            if (current.compareAndSet(snapshot, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * 按顺序用target中的区间覆盖时间线，一次发布
+     *
+     * @param target
+     * @return 发布的新快照
+     */
+    public SectionSnapshot<T> apply(List<Section<T>> target) {
+
+        checkArgument(CollectionUtils.isNotEmpty(target), "target can't be empty");
+
+        while (true) {
+            SectionSnapshot<T> snapshot = current.get();
+            SectionSnapshot<T> next = snapshot;
+            for (Section<T> section : target) {
+                next = next.apply(section);
+            }
+            if (current.compareAndSet(snapshot, next)) {
+                return next;
+            }
+        }
+    }
+
+    private ConcurrentSectionTimeline(SectionSnapshot<T> snapshot) {
+        this.current = new AtomicReference<>(snapshot);
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionUtil.isDate;
+import static org.bugkillers.section.SectionUtil.toEpochDay;
+
+/**
+ * 按天展开的区间时间线视图（非线程安全）
+ * <p/>
+ * 以第一个区间左端点为基准，数组下标为相差的天数，元素为数据id（-1表示未覆盖），
+ * 查询某天的数据只需一次减法和一次数组读取。
+ * 时间线通过本视图apply时增量更新；时间线被直接修改后，下次查询时自动重建。
+ * 时间跨度超过maxSpanDays时不展开，直接查询时间线（判断跨度只看首尾两个区间，O(log n)）。
+ * 增量更新放入字典的数据超过重建时的两倍后，下次查询时按时间线中现有的数据重建字典。
+ */
+public final class DenseSectionView<T> {
+
+    /**
+     * 默认最大展开天数（约10年）
+     */
+    public static final int DEFAULT_MAX_SPAN_DAYS = 3660;
+
+    /**
+     * 未覆盖
+     */
+    private static final int NONE = -1;
+
+    /**
+     * 增量更新时字典的最小容量，超过max(重建时的数据个数 * 2, 该值)后重建
+     */
+    private static final int MIN_DICTIONARY_LIMIT = 16;
+
+    /**
+     * 时间线
+     */
+    private final SectionTimeline<T> timeline;
+
+    /**
+     * 最大展开天数
+     */
+    private final int maxSpanDays;
+
+    /**
+     * 构建时时间线的修改次数
+     */
+    private int builtModCount = -1;
+
+    /**
+     * 是否已展开
+     */
+    private boolean dense;
+
+    /**
+     * 第一天（epoch day）
+     */
+    private int baseDay;
+
+    /**
+     * 每天的数据id
+     */
+    private int[] dataIds = new int[0];
+
+    /**
+     * 数据字典
+     */
+    private SectionDictionary<T> dictionary;
+
+    /**
+     * 字典大小上限，增量更新超过后重建
+     */
+    private int dictionaryLimit;
+
+    /**
+     * 构造视图
+     *
+     * @param timeline
+     * @param <T>
+     * @return
+     */
+    public static <T> DenseSectionView<T> of(SectionTimeline<T> timeline) {
+        return of(timeline, DEFAULT_MAX_SPAN_DAYS);
+    }
+
+    /**
+     * 构造视图
+     *
+     * @param timeline
+     * @param maxSpanDays 最大展开天数
+     * @param <T>
+     * @return
+     */
+    public static <T> DenseSectionView<T> of(SectionTimeline<T> timeline, int maxSpanDays) {
+        checkArgument(timeline != null, "timeline can't be null");
+        checkArgument(maxSpanDays > 0, "maxSpanDays must be positive");
+        return new DenseSectionView<>(timeline, maxSpanDays);
+    }
+
+    /**
+     * 根据日期命中一条数据，不存在返回null
+     *
+     * @param date
+     * @return
+     */
+    public T hit(int date) {
+
+        if (builtModCount != timeline.modCount()) {
+            rebuild();
+        }
+
+        if (!dense) {
+            return timeline.hit(date);
+        }
+
+        if (!isDate(date)) {
+            return null;
+        }
+
+        int offset = toEpochDay(date) - baseDay;
+        if (offset < 0 || offset >= dataIds.length || dataIds[offset] == NONE) {
+            return null;
+        }
+        return dictionary.get(dataIds[offset]);
+    }
+
+    /**
+     * 用target覆盖时间线，并增量更新视图
+     *
+     * @param target
+     */
+    public void apply(Section<T> target) {
+
+        boolean upToDate = builtModCount == timeline.modCount();
+
+        timeline.apply(target);
+
+        if (!upToDate || !dense) {
+            return;
+        }
+
+        int from = toEpochDay(target.getLowerPoint()) - baseDay;
+        int to = toEpochDay(target.getUpperPoint()) - baseDay;
+        if (from < 0 || to >= dataIds.length) {
+            //超出已展开的范围，下次查询时重建
+            return;
+        }
+
+        int dataId = dictionary.intern(target.getData());
+        if (dictionary.size() > dictionaryLimit) {
+            //字典中已有较多被覆盖掉的数据，下次查询时重建
+            return;
+        }
+
+        Arrays.fill(dataIds, from, to + 1, dataId);
+        builtModCount = timeline.modCount();
+    }
+
+    /**
+     * 是否已展开
+     *
+     * @return
+     */
+    public boolean isDense() {
+        if (builtModCount != timeline.modCount()) {
+            rebuild();
+        }
+        return dense;
+    }
+
+    /**
+     * 时间线
+     *
+     * @return
+     */
+    public SectionTimeline<T> timeline() {
+        return timeline;
+    }
+
+    /**
+     * 字典中的数据个数，未展开时为0
+     *
+     * @return
+     */
+    int dataCount() {
+        return dense && dictionary != null ? dictionary.size() : 0;
+    }
+
+    /**
+     * 重建视图
+     */
+    private void rebuild() {
+
+        builtModCount = timeline.modCount();
+
+        Section<T> firstSection = timeline.first();
+        if (firstSection == null) {
+            dense = true;
+            dataIds = new int[0];
+            return;
+        }
+
+        //先由首尾区间计算跨度，不展开时不复制时间线
+        int first = toEpochDay(firstSection.getLowerPoint());
+        long span = (long) toEpochDay(timeline.last().getUpperPoint()) - first + 1;
+        if (span > maxSpanDays) {
+            dense = false;
+            dataIds = new int[0];
+            dictionary = null;
+            return;
+        }
+
+        dense = true;
+        baseDay = first;
+        dataIds = new int[(int) span];
+        dictionary = SectionDictionary.create(firstSection.getComparator());
+
+        Arrays.fill(dataIds, NONE);
+        for (Section<T> section : timeline.toList()) {
+            Arrays.fill(dataIds, toEpochDay(section.getLowerPoint()) - baseDay,
+                    toEpochDay(section.getUpperPoint()) - baseDay + 1, dictionary.intern(section.getData()));
+        }
+        dictionaryLimit = Math.max(dictionary.size() * 2, MIN_DICTIONARY_LIMIT);
+    }
+
+    private DenseSectionView(SectionTimeline<T> timeline, int maxSpanDays) {
+        this.timeline = timeline;
+        this.maxSpanDays = maxSpanDays;
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * long 端点的区间（不可变）
+ * <p/>
+ * 端点属于一个{@link LongSectionDomain}（如epoch分钟，或按小时对齐的epoch毫秒），用于小时、分钟级的时间窗口。
+ * merge、connect、hit 的语义与{@link Section}一致，相邻为相差一个step，merge使用相同的扫描线算法。
+ * 参与同一次运算的区间必须属于相同的离散域。
+ */
+public final class LongSection<T> implements Comparable<LongSection<T>> {
+
+    /**
+     * 区间左端点
+     */
+    private final long lowerPoint;
+
+    /**
+     * 区间右端点
+     */
+    private final long upperPoint;
+
+    /**
+     * 区间数据
+     */
+    private final T data;
+
+    /**
+     * 比较器
+     */
+    private final Comparator<T> comparator;
+
+    /**
+     * 离散域
+     */
+    private final LongSectionDomain domain;
+
+    /**
+     * 对象构造器
+     *
+     * @param lowerPoint
+     * @param upperPoint
+     * @param data
+     * @param comparator
+     * @param domain
+     * @param <T>
+     * @return
+     */
+    public static <T> LongSection<T> build(long lowerPoint, long upperPoint, T data, Comparator<T> comparator,
+                                           LongSectionDomain domain) {
+
+        checkArgument(data != null && comparator != null && domain != null,
+                "data, comparator and domain can't be null");
+
+        checkArgument(domain.isPoint(lowerPoint) && domain.isPoint(upperPoint) && lowerPoint <= upperPoint,
+                "lower and upper is illegal in %s, now is lowerPoint:%s upperPoint:%s.", domain, lowerPoint,
+                upperPoint);
+
+        return new LongSection<>(lowerPoint, upperPoint, data, comparator, domain);
+    }
+
+    /**
+     * 对象构造器（不校验端点，内部使用）
+     */
+    static <T> LongSection<T> buildUnchecked(long lowerPoint, long upperPoint, T data, Comparator<T> comparator,
+                                             LongSectionDomain domain) {
+        return new LongSection<>(lowerPoint, upperPoint, data, comparator, domain);
+    }
+
+    /**
+     * merge API
+     * <p/>
+     * 合并两个LongSection，返回按左端点排序的结果
+     *
+     * @param source
+     * @param target
+     * @param <T>
+     * @return
+     */
+    public static <T> List<LongSection<T>> merge(LongSection<T> source, LongSection<T> target) {
+
+        if (source == null) {
+            return target == null ? null : Lists.newArrayList(Collections.singletonList(target));
+        }
+
+        checkArgument(null != target, "target can't be null");
+        checkDomain(Collections.singletonList(source), target.domain);
+
+        return LongSectionMerger.merge(Collections.singletonList(source), Collections.singletonList(target));
+    }
+
+    /**
+     * merge API
+     *
+     * @param source
+     * @param target
+     * @param <T>
+     * @return
+     */
+    public static <T> List<LongSection<T>> merge(List<LongSection<T>> source, List<LongSection<T>> target) {
+        return merge(source, target, true);
+    }
+
+    /**
+     * merge API (通用)
+     * 合并两个LongSection集合，target依次覆盖source
+     *
+     * @param source
+     * @param target
+     * @param mergeSelf source为空时是否对target自己跟自己merge
+     * @param <T>
+     * @return
+     */
+    public static <T> List<LongSection<T>> merge(List<LongSection<T>> source, List<LongSection<T>> target,
+                                                 boolean mergeSelf) {
+
+        if (CollectionUtils.isEmpty(source)) {
+            return mergeSelf && CollectionUtils.isNotEmpty(target) ? mergeSelf(target) : target;
+        }
+
+        checkArgument(CollectionUtils.isNotEmpty(target), "target can't be empty");
+        checkDomain(source, target.get(0).domain);
+        checkDomain(target, target.get(0).domain);
+
+        return LongSectionMerger.merge(source, target);
+    }
+
+    /**
+     * merge API
+     * <p/>
+     * 合并一个LongSection List 和 一个LongSection
+     *
+     * @param source
+     * @param target
+     * @param mergeSelf
+     * @param <T>
+     * @return
+     */
+    public static <T> List<LongSection<T>> merge(List<LongSection<T>> source, LongSection<T> target,
+                                                 boolean mergeSelf) {
+
+        if (CollectionUtils.isEmpty(source)) {
+            return target == null ? null : Lists.newArrayList(Collections.singletonList(target));
+        }
+
+        checkArgument(null != target, "target can't be empty");
+        checkDomain(source, target.domain);
+
+        return LongSectionMerger.merge(source, Collections.singletonList(target));
+    }
+
+    /**
+     * merge API
+     * <p/>
+     * 合并一个LongSection对象和一个LongSection List
+     *
+     * @param source
+     * @param target
+     * @param mergeSelf
+     * @param <T>
+     * @return
+     */
+    public static <T> List<LongSection<T>> merge(LongSection<T> source, List<LongSection<T>> target,
+                                                 boolean mergeSelf) {
+
+        if (source == null) {
+            return mergeSelf && CollectionUtils.isNotEmpty(target) ? mergeSelf(target) : target;
+        }
+
+        checkArgument(CollectionUtils.isNotEmpty(target), " target can't be empty");
+        checkDomain(target, source.domain);
+
+        return LongSectionMerger.merge(Collections.singletonList(source), target);
+    }
+
+    /**
+     * hit API
+     * <p/>
+     * 命中包含point的第一个区间的数据，不存在返回null
+     *
+     * @param source
+     * @param point
+     * @param <T>
+     * @return
+     */
+    public static <T> T hit(List<LongSection<T>> source, long point) {
+
+        checkArgument(CollectionUtils.isNotEmpty(source), "source can't be empty");
+
+        for (LongSection<T> section : source) {
+            if (section.lowerPoint <= point && point <= section.upperPoint) {
+                return section.data;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * hit API
+     * <p/>
+     * 命中与[lowerPoint,upperPoint]有交集的所有区间，返回比较器排序最靠前的data，未命中返回null
+     *
+     * @param source
+     * @param comparator
+     * @param lowerPoint
+     * @param upperPoint
+     * @param <T>
+     * @return
+     */
+    public static <T> T hit(List<LongSection<T>> source, Comparator<T> comparator, long lowerPoint,
+                            long upperPoint) {
+
+        checkArgument(CollectionUtils.isNotEmpty(source) && null != comparator, "source and comparator can't be empty");
+        checkArgument(lowerPoint <= upperPoint, "lowerPoint can't be greater than upperPoint, now is %s-%s",
+                lowerPoint, upperPoint);
+
+        T hitData = null;
+
+        for (LongSection<T> section : source) {
+            if (section.lowerPoint <= upperPoint && lowerPoint <= section.upperPoint
+                    && (hitData == null || comparator.compare(section.data, hitData) < 0)) {
+                hitData = section.data;
+            }
+        }
+
+        return hitData;
+    }
+
+    /**
+     * 合并两个相邻的LongSection
+     *
+     * @param one
+     * @param other
+     * @param <T>
+     * @return
+     */
+    public static <T> LongSection<T> connect(LongSection<T> one, LongSection<T> other) {
+
+        checkArgument(one != null && other != null, "one and other can't be empty");
+        checkArgument(one.isConnected(other), "two section must be isConnected");
+
+        return new LongSection<>(Math.min(one.lowerPoint, other.lowerPoint), Math.max(one.upperPoint,
+                other.upperPoint), one.data, one.comparator, one.domain);
+    }
+
+    /**
+     * 判断多个区间是否存在区间重复
+     *
+     * @param sections
+     * @param <T>
+     * @return true 存在重复  false 不重复
+     */
+    public static <T> boolean hasRepeat(List<LongSection<T>> sections) {
+
+        checkArgument(CollectionUtils.isNotEmpty(sections), "sections can't be empty");
+
+        List<LongSection<T>> sorted = Lists.newArrayList(sections);
+        Collections.sort(sorted);
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i - 1).upperPoint >= sorted.get(i).lowerPoint) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断当前区间是否和另一区间相连（数据相同，并且相交或相邻）
+     *
+     * @param other
+     * @return
+     */
+    public boolean isConnected(LongSection<T> other) {
+        checkArgument(other != null, "other can't be empty");
+        checkArgument(domain.equals(other.domain), "domain must be the same, now is %s and %s", domain,
+                other.domain);
+        return isSameData(other) && (isIntersected(other) || isContinuous(other));
+    }
+
+    /**
+     * 判断和另一个区间是否相交
+     *
+     * @param other
+     * @return
+     */
+    public boolean isIntersected(LongSection<T> other) {
+        checkArgument(other != null, "other can't be empty");
+        return !(this.upperPoint < other.lowerPoint || this.lowerPoint > other.upperPoint);
+    }
+
+    /**
+     * 判断和另一个区间是否相邻（相差一个step）
+     *
+     * @param other
+     * @return
+     */
+    public boolean isContinuous(LongSection<T> other) {
+        checkArgument(other != null, "other can't be empty");
+        return domain.isContinuous(this.upperPoint, other.lowerPoint)
+                || domain.isContinuous(other.upperPoint, this.lowerPoint);
+    }
+
+    /**
+     * 判断和另一个区间的数据是否相等
+     */
+    boolean isSameData(LongSection<T> other) {
+        return this.data == other.data || this.comparator.compare(this.data, other.data) == Section.EQUAL;
+    }
+
+    @Override
+    public int compareTo(LongSection<T> o) {
+        if (this.lowerPoint != o.lowerPoint) {
+            return Long.compare(this.lowerPoint, o.lowerPoint);
+        }
+        if (this.upperPoint != o.upperPoint) {
+            return Long.compare(this.upperPoint, o.upperPoint);
+        }
+        return this.data == o.data ? Section.EQUAL : this.comparator.compare(this.data, o.data);
+    }
+
+    public long getLowerPoint() {
+        return lowerPoint;
+    }
+
+    public long getUpperPoint() {
+        return upperPoint;
+    }
+
+    public T getData() {
+        return data;
+    }
+
+    public LongSectionDomain getDomain() {
+        return domain;
+    }
+
+    Comparator<T> getComparator() {
+        return comparator;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + lowerPoint + "," + upperPoint + "] " + data;
+    }
+
+    /**
+     * 自己跟自己merge
+     */
+    private static <T> List<LongSection<T>> mergeSelf(List<LongSection<T>> sectionList) {
+        if (sectionList.size() == 1) {
+            return sectionList;
+        }
+        checkDomain(sectionList, sectionList.get(0).domain);
+        return LongSectionMerger.merge(sectionList, Collections.<LongSection<T>>emptyList());
+    }
+
+    /**
+     * 校验区间都属于同一个离散域
+     */
+    private static <T> void checkDomain(List<LongSection<T>> sections, LongSectionDomain domain) {
+        for (LongSection<T> section : sections) {
+            checkArgument(section != null, "section can't be null");
+            checkArgument(domain.equals(section.domain), "domain must be the same, now is %s and %s", domain,
+                    section.domain);
+        }
+    }
+
+    private LongSection(long lowerPoint, long upperPoint, T data, Comparator<T> comparator,
+                        LongSectionDomain domain) {
+        this.lowerPoint = lowerPoint;
+        this.upperPoint = upperPoint;
+        this.data = data;
+        this.comparator = comparator;
+        this.domain = domain;
+    }
+}
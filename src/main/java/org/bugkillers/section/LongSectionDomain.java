@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * long 端点的离散域（不可变，线程安全）
+ * <p/>
+ * 端点为step的整数倍（如epoch分钟、按小时对齐的epoch毫秒），相邻两个端点相差一个step。
+ * 校验和相邻判断都是整数运算，不做日历解析。
+ */
+public final class LongSectionDomain {
+
+    /**
+     * 步长为1（端点为epoch分钟、epoch毫秒等本身）
+     */
+    public static final LongSectionDomain UNIT = new LongSectionDomain(1L);
+
+    /**
+     * 步长
+     */
+    private final long step;
+
+    /**
+     * 最小端点
+     */
+    private final long minPoint;
+
+    /**
+     * 最大端点
+     */
+    private final long maxPoint;
+
+    /**
+     * 构造离散域
+     *
+     * @param step 步长
+     * @return
+     */
+    public static LongSectionDomain of(long step) {
+        checkArgument(step > 0, "step must be positive, now is %s", step);
+        return step == 1L ? UNIT : new LongSectionDomain(step);
+    }
+
+    /**
+     * 以epoch毫秒为端点，按duration对齐的离散域，如 of(1, TimeUnit.HOURS) 为整点
+     *
+     * @param duration
+     * @param unit
+     * @return
+     */
+    public static LongSectionDomain of(long duration, TimeUnit unit) {
+        checkArgument(unit != null, "unit can't be null");
+        return of(unit.toMillis(duration));
+    }
+
+    /**
+     * 步长
+     *
+     * @return
+     */
+    public long step() {
+        return step;
+    }
+
+    /**
+     * 端点是否合法（step的整数倍，并且前后各留一个step，保证计算相邻端点不溢出）
+     *
+     * @param point
+     * @return
+     */
+    public boolean isPoint(long point) {
+        return point % step == 0 && point >= minPoint && point <= maxPoint;
+    }
+
+    /**
+     * 两个端点是否相邻
+     *
+     * @param point
+     * @param next
+     * @return
+     */
+    public boolean isContinuous(long point, long next) {
+        return next - point == step;
+    }
+
+    /**
+     * 下一个端点
+     *
+     * @param point
+     * @return
+     */
+    public long next(long point) {
+        return point + step;
+    }
+
+    /**
+     * 上一个端点
+     *
+     * @param point
+     * @return
+     */
+    public long previous(long point) {
+        return point - step;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof LongSectionDomain && step == ((LongSectionDomain) o).step;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(step);
+    }
+
+    @Override
+    public String toString() {
+        return "LongSectionDomain(step=" + step + ")";
+    }
+
+    private LongSectionDomain(long step) {
+        this.step = step;
+        this.minPoint = (Long.MIN_VALUE / step + 1) * step;
+        this.maxPoint = (Long.MAX_VALUE / step - 1) * step;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LongSection 合并引擎（内部使用）
+ * <p/>
+ * 与{@link SectionMerger}共用{@link SectionSweep}扫描线合并，端点和相邻关系由区间的{@link LongSectionDomain}决定。
+ */
+final class LongSectionMerger {
+
+    private LongSectionMerger() {
+
+    }
+
+    /**
+     * 用upper覆盖lower，返回按左端点排序、合并后的区间
+     *
+     * @param lower
+     * @param upper
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    static <T> List<LongSection<T>> merge(List<LongSection<T>> lower, List<LongSection<T>> upper) {
+
+        int lowerSize = lower.size();
+        int size = lowerSize + upper.size();
+
+        final LongSection<T>[] sections = (LongSection<T>[]) new LongSection<?>[size];
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            LongSection<T> section = i < lowerSize ? lower.get(i) : upper.get(i - lowerSize);
+            sections[i] = section;
+            starts[i] = section.getLowerPoint();
+            ends[i] = section.getUpperPoint();
+        }
+
+        final List<LongSection<T>> result = new ArrayList<>();
+
+        LongSectionDomain domain = size == 0 ? LongSectionDomain.UNIT : sections[0].getDomain();
+        new SectionSweep(domain) {
+            @Override
+            boolean isSameData(int i, int j) {
+                return sections[i].isSameData(sections[j]);
+            }
+
+            @Override
+            void emit(int index, long start, long end) {
+                result.add(LongSectionMerger.emit(sections[index], start, end));
+            }
+        }.sweep(starts, ends);
+
+        return result;
+    }
+
+    /**
+     * 输出区间，端点未变化时复用原对象
+     */
+    private static <T> LongSection<T> emit(LongSection<T> section, long start, long end) {
+        if (section.getLowerPoint() == start && section.getUpperPoint() == end) {
+            return section;
+        }
+        return LongSection.buildUnchecked(start, end, section.getData(), section.getComparator(),
+                section.getDomain());
+    }
+}
@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionUtil.MAX_EPOCH_DAY;
+import static org.bugkillers.section.SectionUtil.MIN_EPOCH_DAY;
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.bugkillers.section.SectionUtil.isDate;
+import static org.bugkillers.section.SectionUtil.toEpochDay;
+
+/**
+ * 基于内存映射文件的只读区间时间线
+ * <p/>
+ * 文件格式（大端）：
+ * <pre>
+ * int    魔数
+ * int    格式版本
+ * int    区间个数 n
+ * int    数据个数 d
+ * int[n] 左端点（epoch day，升序）
+ * int[n] 右端点（epoch day）
+ * int[n] 数据id
+ * d个数据（{@link SectionDataCodec}编码）
+ * </pre>
+ * 区间端点和数据id直接在映射的buffer上二分查找，不加载到堆内；只有去重后的数据在打开时解码到堆内。
+ * <p/>
+ * 打开时只校验文件头，不读区间部分；需要完整校验时调用{@link #validate()}。
+ * 写文件时先写同目录下的临时文件再原子替换，已映射旧文件的读者继续读旧内容。
+ */
+public final class MappedSectionTimeline<T> {
+
+    /**
+     * 魔数 "BKSC"
+     */
+    private static final int MAGIC = 0x424B5343;
+
+    /**
+     * 格式版本
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * 文件头长度
+     */
+    private static final int HEADER_BYTES = 16;
+
+    /**
+     * 左端点
+     */
+    private final IntBuffer starts;
+
+    /**
+     * 右端点
+     */
+    private final IntBuffer ends;
+
+    /**
+     * 数据id
+     */
+    private final IntBuffer dataIds;
+
+    /**
+     * 数据
+     */
+    private final Object[] data;
+
+    /**
+     * 区间个数
+     */
+    private final int size;
+
+    /**
+     * 比较器
+     */
+    private final Comparator<T> comparator;
+
+    /**
+     * 文件路径
+     */
+    private final Path path;
+
+    /**
+     * 将Section集合（先自己跟自己merge）写入文件
+     *
+     * @param path
+     * @param source
+     * @param codec
+     * @param <T>
+     * @throws IOException
+     */
+    public static <T> void write(Path path, List<Section<T>> source, SectionDataCodec<T> codec) throws IOException {
+        write(path, CompactSectionList.of(source), codec);
+    }
+
+    /**
+     * 将列式区间集合写入文件，只写出用到的数据
+     * <p/>
+     * 先写同目录下的临时文件，再原子替换path
+     *
+     * @param path
+     * @param source
+     * @param codec
+     * @param <T>
+     * @throws IOException
+     */
+    public static <T> void write(Path path, CompactSectionList<T> source, SectionDataCodec<T> codec)
+            throws IOException {
+
+        checkArgument(path != null && source != null && codec != null, "path, source and codec can't be null");
+
+        int size = source.size();
+
+        //重新编号，只保留用到的数据
+        int[] remap = new int[source.dictionary().size()];
+        Arrays.fill(remap, -1);
+        List<T> values = Lists.newArrayList();
+        for (int i = 0; i < size; i++) {
+            int id = source.getDataId(i);
+            if (remap[id] < 0) {
+                remap[id] = values.size();
+                values.add(source.dictionary().get(id));
+            }
+        }
+
+        Path directory = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            write(temp, source, remap, values, codec);
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static <T> void write(Path path, CompactSectionList<T> source, int[] remap, List<T> values,
+                                  SectionDataCodec<T> codec) throws IOException {
+
+        int size = source.size();
+
+        try (OutputStream stream = Files.newOutputStream(path)) {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(size);
+            output.writeInt(values.size());
+            for (int i = 0; i < size; i++) {
+                output.writeInt(source.startDay(i));
+            }
+            for (int i = 0; i < size; i++) {
+                output.writeInt(source.endDay(i));
+            }
+            for (int i = 0; i < size; i++) {
+                output.writeInt(remap[source.getDataId(i)]);
+            }
+            for (T value : values) {
+                codec.write(value, output);
+            }
+            output.flush();
+        }
+    }
+
+    /**
+     * 以只读方式映射文件
+     *
+     * @param path
+     * @param codec
+     * @param comparator
+     * @param <T>
+     * @return
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> MappedSectionTimeline<T> open(Path path, SectionDataCodec<T> codec, Comparator<T> comparator)
+            throws IOException {
+
+        checkArgument(path != null && codec != null && comparator != null,
+                "path, codec and comparator can't be null");
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            checkArgument(channel.size() <= Integer.MAX_VALUE, "file is too large:%s", channel.size());
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a section file:" + path);
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("unsupported format version:" + buffer.getInt(4));
+        }
+
+        int size = buffer.getInt(8);
+        int dataCount = buffer.getInt(12);
+        long dataOffset = HEADER_BYTES + 12L * size;
+        if (size < 0 || dataCount < 0 || dataOffset > buffer.capacity()) {
+            throw new IOException("corrupted section file:" + path);
+        }
+
+        IntBuffer starts = slice(buffer, HEADER_BYTES, size);
+        IntBuffer ends = slice(buffer, HEADER_BYTES + 4 * size, size);
+        IntBuffer dataIds = slice(buffer, HEADER_BYTES + 8 * size, size);
+
+        byte[] bytes = new byte[buffer.capacity() - (int) dataOffset];
+        ByteBuffer dataBuffer = buffer.duplicate();
+        dataBuffer.position((int) dataOffset);
+        dataBuffer.get(bytes);
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        Object[] data = new Object[dataCount];
+        for (int i = 0; i < dataCount; i++) {
+            T value = codec.read(input);
+            //比较器为字典时打开时换成规范实例，构造区间时不再查字典
+            data[i] = comparator instanceof SectionDictionary ? ((SectionDictionary<T>) comparator).canonical(value)
+                    : value;
+        }
+
+        return new MappedSectionTimeline<>(starts, ends, dataIds, data, size, comparator, path);
+    }
+
+    /**
+     * 校验所有区间：按左端点排序且不重复、端点在支持的日期范围内、数据下标在数据个数内，O(n)
+     * <p/>
+     * 会读入整个区间部分，一般在文件来源不可信时调用一次
+     *
+     * @throws IOException 文件损坏
+     */
+    public void validate() throws IOException {
+        int previousEnd = MIN_EPOCH_DAY - 1;
+        for (int i = 0; i < size; i++) {
+            int start = starts.get(i);
+            int end = ends.get(i);
+            int dataId = dataIds.get(i);
+            if (start <= previousEnd || start > end || end > MAX_EPOCH_DAY || dataId < 0 || dataId >= data.length) {
+                throw new IOException("corrupted section file:" + path);
+            }
+            previousEnd = end;
+        }
+    }
+
+    /**
+     * 根据日期命中一条数据，不存在返回null
+     *
+     * @param date
+     * @return
+     */
+    public T hit(int date) {
+
+        if (!isDate(date)) {
+            return null;
+        }
+
+        int epochDay = toEpochDay(date);
+        int i = floor(epochDay);
+        return i >= 0 && epochDay <= ends.get(i) ? data(i) : null;
+    }
+
+    /**
+     * 命中与[startDate,endDate]有交集的所有区间，返回比较器排序最靠前的data，未命中返回null
+     *
+     * @param comparator
+     * @param startDate
+     * @param endDate
+     * @return
+     */
+    public T hit(Comparator<T> comparator, int startDate, int endDate) {
+
+        checkArgument(comparator != null, "comparator can't be null");
+        checkRange(startDate, endDate);
+
+        int to = floor(toEpochDay(endDate)) + 1;
+
+        T hitData = null;
+        for (int i = first(toEpochDay(startDate)); i < to; i++) {
+            T value = data(i);
+            if (hitData == null || comparator.compare(value, hitData) < 0) {
+                hitData = value;
+            }
+        }
+        return hitData;
+    }
+
+    /**
+     * 与[startDate,endDate]有交集的所有区间（按左端点排序）
+     *
+     * @param startDate
+     * @param endDate
+     * @return
+     */
+    public List<Section<T>> overlaps(int startDate, int endDate) {
+
+        checkRange(startDate, endDate);
+
+        int to = floor(toEpochDay(endDate)) + 1;
+
+        List<Section<T>> sections = Lists.newArrayList();
+        for (int i = first(toEpochDay(startDate)); i < to; i++) {
+            sections.add(section(i));
+        }
+        return sections;
+    }
+
+    /**
+     * 转换为Section集合（按左端点排序）
+     *
+     * @return
+     */
+    public List<Section<T>> toList() {
+        List<Section<T>> sections = Lists.newArrayListWithCapacity(size);
+        for (int i = 0; i < size; i++) {
+            sections.add(section(i));
+        }
+        return sections;
+    }
+
+    /**
+     * 区间个数
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    private Section<T> section(int i) {
+        return Section.buildCanonical(fromEpochDay(starts.get(i)), fromEpochDay(ends.get(i)), data(i), comparator);
+    }
+
+    /**
+     * 第i个区间的数据，数据下标越界时文件已损坏
+     */
+    @SuppressWarnings("unchecked")
+    private T data(int i) {
+        int dataId = dataIds.get(i);
+        if (dataId < 0 || dataId >= data.length) {
+            throw new IllegalStateException("corrupted section file:" + path);
+        }
+        return (T) data[dataId];
+    }
+
+    /**
+     * 左端点小于等于epochDay的最后一个区间下标，不存在返回-1
+     */
+    private int floor(int epochDay) {
+        return SectionUtil.floor(starts, size, epochDay);
+    }
+
+    /**
+     * 右端点大于等于epochDay的第一个区间下标
+     */
+    private int first(int epochDay) {
+        int i = floor(epochDay);
+        return i >= 0 && ends.get(i) >= epochDay ? i : i + 1;
+    }
+
+    private static void checkRange(int startDate, int endDate) {
+        checkArgument(isDate(startDate) && isDate(endDate) && startDate <= endDate,
+                "start and end is illegal,that must comply with the format:'yyyyMMdd',now is startDate:%s endDate:%s.",
+                startDate, endDate);
+    }
+
+    private static IntBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.limit(offset + 4 * length);
+        return duplicate.slice().asIntBuffer();
+    }
+
+    private MappedSectionTimeline(IntBuffer starts, IntBuffer ends, IntBuffer dataIds, Object[] data, int size,
+                                  Comparator<T> comparator, Path path) {
+        this.starts = starts;
+        this.ends = ends;
+        this.dataIds = dataIds;
+        this.data = data;
+        this.size = size;
+        this.comparator = comparator;
+        this.path = path;
+    }
+}
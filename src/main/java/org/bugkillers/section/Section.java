@@ -15,6 +15,7 @@ import org.apache.commons.collections.CollectionUtils;
 import java.util.*;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionUtil.LOWER_POINT_ORDER;
 import static org.bugkillers.section.SectionUtil.decreaseByDays;
 import static org.bugkillers.section.SectionUtil.isDate;
 import static org.bugkillers.section.SectionUtil.isDateContinuous;
@@ -98,28 +99,14 @@ public final class Section<T> implements Comparable<Section<T>> {
      */
     public static <T> List<Section<T>> merge(List<Section<T>> source, List<Section<T>> target, boolean mergeSelf) {
 
-        if (mergeSelf && CollectionUtils.isNotEmpty(source)) {
-            source = mergeSelf(source);
-        }
-
-        if (mergeSelf && CollectionUtils.isNotEmpty(target)) {
-            target = mergeSelf(target);
-        }
-
         //原始source为空直接返回target
         if (CollectionUtils.isEmpty(source)) {
-            return target;
+            return mergeSelf && CollectionUtils.isNotEmpty(target) ? mergeSelf(target) : target;
         }
 
         checkArgument(CollectionUtils.isNotEmpty(target), "target can't be empty");
 
-        for (Section<T> targetSection : target) {
-            source = merge(source, targetSection, false);
-        }
-
-        List<Section<T>> targetSectionList = Lists.newArrayList(source);
-
-        return targetSectionList;
+        return SectionMerger.merge(source, target);
     }
 
     /**
@@ -141,10 +128,12 @@ public final class Section<T> implements Comparable<Section<T>> {
 
         checkArgument(null != target, "target can't be null");
 
+        SectionMetrics metrics = SectionInstrumentation.current();
+
         //判断区间是否相连
         if (source.isConnected(target)) {
             //连接区间
-            return Lists.newArrayList(connect(source, target));
+            return record(metrics, SectionMetrics.MergeCase.CONNECTED, Lists.newArrayList(connect(source, target)));
         }
 
         final int minSourceDate = source.startDate;
@@ -167,7 +156,7 @@ public final class Section<T> implements Comparable<Section<T>> {
                                             |         |
                                 |_________| |_________|
             */
-            return Lists.newArrayList(source, target);
+            return record(metrics, SectionMetrics.MergeCase.DISJOINT, Lists.newArrayList(source, target));
         }
 
         if (minSourceDate == minTargetDate && maxSourceDate == maxTargetDate) {
@@ -178,10 +167,11 @@ public final class Section<T> implements Comparable<Section<T>> {
                         |_________|
 
              */
-            return Lists.newArrayList(target);
+            return record(metrics, SectionMetrics.MergeCase.IDENTICAL, Lists.newArrayList(target));
         }
 
         List<Section<T>> targetSectionList = Lists.newArrayList();
+        SectionMetrics.MergeCase mergeCase;
 
         if (minSourceDate <= minTargetDate) {
             if (maxSourceDate < maxTargetDate) {
@@ -199,6 +189,7 @@ public final class Section<T> implements Comparable<Section<T>> {
                 Section<T> section2 = build(minTargetDate, maxTargetDate, target.data, target.comparator);
 
                 targetSectionList = Lists.newArrayList(section1, section2);
+                mergeCase = SectionMetrics.MergeCase.OVERLAP_RIGHT;
 
                 if (minSourceDate == minTargetDate) {
                     //特殊情況处理
@@ -234,6 +225,7 @@ public final class Section<T> implements Comparable<Section<T>> {
                         source.data, source.comparator);
 
                 targetSectionList = Lists.newArrayList(section1, section2, section3);
+                mergeCase = SectionMetrics.MergeCase.CONTAINED;
 
                 if (minSourceDate == minTargetDate) {
                     //特殊情況处理
@@ -283,6 +275,7 @@ public final class Section<T> implements Comparable<Section<T>> {
                 Section<T> section2 = build(minTargetDate, maxTargetDate, target.data, target.comparator);
 
                 targetSectionList = Lists.newArrayList(section1, section2);
+                mergeCase = SectionMetrics.MergeCase.OVERLAP_LEFT;
 
                 if (maxSourceDate == maxTargetDate) {
                     //特殊情況处理
@@ -307,10 +300,28 @@ public final class Section<T> implements Comparable<Section<T>> {
                  */
                 targetSectionList = Lists
                         .newArrayList(build(minTargetDate, maxTargetDate, target.data, target.comparator));
+                mergeCase = SectionMetrics.MergeCase.COVERED;
             }
         }
 
-        return targetSectionList;
+        return record(metrics, mergeCase, targetSectionList);
+    }
+
+    /**
+     * 记录两个Section merge的情形
+     *
+     * @param metrics
+     * @param mergeCase
+     * @param result
+     * @param <T>
+     * @return result
+     */
+    private static <T> List<Section<T>> record(SectionMetrics metrics, SectionMetrics.MergeCase mergeCase,
+                                               List<Section<T>> result) {
+        if (metrics != null) {
+            metrics.onSplit(mergeCase, result.size());
+        }
+        return result;
     }
 
     /**
@@ -325,54 +336,13 @@ public final class Section<T> implements Comparable<Section<T>> {
      */
     public static <T> List<Section<T>> merge(List<Section<T>> source, Section<T> target, boolean mergeSelf) {
 
-        if (mergeSelf && CollectionUtils.isNotEmpty(source)) {
-            source = mergeSelf(source);
-        }
-
         if (CollectionUtils.isEmpty(source)) {
             return target == null ? null : Lists.newArrayList(target);
         }
 
         checkArgument(null != target, "target can't be empty");
 
-        List<Section<T>> targetSectionList = Lists.newArrayList(source);
-
-        //每次merge之后新产生的Section放到此set
-        List<Section<T>> tempList = Lists.newArrayList();
-
-        tempList.add(target);
-
-        while (!tempList.isEmpty()) {
-
-            Iterator<Section<T>> iterator = source.iterator();
-
-            Section<T> needMergeSection = null;
-
-            while (iterator.hasNext()) {
-                Section<T> sourceSection = iterator.next();
-                if (sourceSection.isConnected(target) || sourceSection.isIntersected(target)) {
-                    needMergeSection = sourceSection;
-                    break;
-                }
-            }
-
-            if (needMergeSection != null) {
-                //将merge前的数据清除
-                tempList.remove(target);
-                targetSectionList.remove(needMergeSection);
-
-                tempList.addAll(merge(needMergeSection, target));
-
-                //递归调用
-                return merge(targetSectionList, tempList, false);
-            } else {
-                targetSectionList.add(target);
-                tempList.remove(target);
-            }
-
-        }
-
-        return targetSectionList;
+        return SectionMerger.merge(source, Collections.singletonList(target));
     }
 
     /**
@@ -387,17 +357,13 @@ public final class Section<T> implements Comparable<Section<T>> {
      */
     public static <T> List<Section<T>> merge(Section<T> source, List<Section<T>> target, boolean mergeSelf) {
 
-        if (mergeSelf && CollectionUtils.isNotEmpty(target)) {
-            target = mergeSelf(target);
-        }
-
         if (source == null) {
-            return target;
+            return mergeSelf && CollectionUtils.isNotEmpty(target) ? mergeSelf(target) : target;
         }
 
         checkArgument(CollectionUtils.isNotEmpty(target), " target can't be empty");
 
-        return merge(Lists.newArrayList(source), target, false);
+        return SectionMerger.merge(Collections.singletonList(source), target);
     }
 
     /**
@@ -415,21 +381,114 @@ public final class Section<T> implements Comparable<Section<T>> {
 
         checkArgument(CollectionUtils.isNotEmpty(source), "source can't be empty");
 
+        SectionMetrics metrics = SectionInstrumentation.current();
+        long begin = SectionInstrumentation.start(metrics);
+
+        T hitData = null;
+        int scanned = 0;
+
         for (Section<T> section : source) {
+            scanned++;
             if (section.startDate <= startDate && startDate <= section.endDate) {
-                return section.data;
+                hitData = section.data;
+                break;
+            }
+        }
+
+        if (metrics != null) {
+            metrics.onHit(scanned, System.nanoTime() - begin);
+        }
+
+        return hitData;
+    }
+
+    /**
+     * hit API
+     * <p/>
+     * 批量命中：dates（yyyyMMdd，可无序）中每个日期命中的数据写入results对应下标，未命中为null
+     * <p/>
+     * 日期和区间各排序一次后同时向前遍历，source应为merge后的结果（区间不重复）
+     *
+     * @param source
+     * @param dates
+     * @param results
+     * @param <T>
+     */
+    public static <T> void hit(List<Section<T>> source, int[] dates, T[] results) {
+
+        checkArgument(CollectionUtils.isNotEmpty(source), "source can't be empty");
+        checkArgument(dates != null && results != null && results.length >= dates.length,
+                "dates and results can't be null, and results must be large enough");
+
+        SectionMetrics metrics = SectionInstrumentation.current();
+        long begin = SectionInstrumentation.start(metrics);
+
+        //复制到数组，source为LinkedList等不支持随机访问的list时按下标访问不会退化为O(n^2)
+        @SuppressWarnings("unchecked")
+        Section<T>[] sections = (Section<T>[]) source.toArray(new Section<?>[source.size()]);
+        for (int i = 1; i < sections.length; i++) {
+            if (sections[i - 1].startDate > sections[i].startDate) {
+                Arrays.sort(sections, LOWER_POINT_ORDER);
+                break;
+            }
+        }
+
+        boolean sorted = true;
+        for (int i = 1; i < dates.length && sorted; i++) {
+            sorted = dates[i - 1] <= dates[i];
+        }
+
+        //未排序时，高32位为日期，低32位为原下标
+        long[] probes = null;
+        if (!sorted) {
+            probes = new long[dates.length];
+            for (int i = 0; i < dates.length; i++) {
+                probes[i] = (long) dates[i] << 32 | i;
             }
+            Arrays.sort(probes);
         }
 
-        return null;
+        int size = sections.length;
+        int cursor = 0;
+
+        for (int i = 0; i < dates.length; i++) {
+            int index = sorted ? i : (int) probes[i];
+            int date = dates[index];
+
+            while (cursor < size && sections[cursor].endDate < date) {
+                cursor++;
+            }
+
+            results[index] = cursor < size && sections[cursor].startDate <= date ? sections[cursor].data : null;
+        }
+
+        if (metrics != null) {
+            metrics.onHit(Math.min(cursor + 1, size), System.nanoTime() - begin);
+        }
     }
 
     /**
-     * hit API  预留
+     * hit API
      * <p/>
-     * 根据start和end命中一条data(可自定义比较器)
+     * 根据start在索引中命中一条数据，O(log n)，endDate暂时预留
+     *
+     * @param index
+     * @param startDate
+     * @param endDate
+     * @param <T>
+     * @return
+     */
+    public static <T> T hit(SectionIndex<T> index, int startDate, int endDate) {
+
+        checkArgument(index != null, "index can't be null");
+
+        return index.hit(startDate);
+    }
+
+    /**
+     * hit API
      * <p/>
-     * 暂时不提供排序逻辑
+     * 命中与[startDate,endDate]有交集的所有区间，返回比较器排序最靠前的data，未命中返回null
      *
      * @param source
      * @param comparator
@@ -438,50 +497,69 @@ public final class Section<T> implements Comparable<Section<T>> {
      * @param <T>
      * @return
      */
-    @Deprecated
-    private static <T> T hit(List<Section<T>> source, Comparator<T> comparator, int startDate, int endDate) {
+    public static <T> T hit(List<Section<T>> source, Comparator<T> comparator, int startDate, int endDate) {
 
-        checkArgument(CollectionUtils.isNotEmpty(source), "source can't be empty");
+        checkArgument(CollectionUtils.isNotEmpty(source) && null != comparator, "source and comparator can't be empty");
 
         checkArgument(isDate(startDate) && isDate(endDate) && startDate <= endDate,
                 "start and end is illegal,that must comply with the format:'yyyyMMdd',now is startDate:%s endDate:%s.",
                 startDate, endDate);
 
-        List<Section<T>> hitSectionList = Lists.newArrayList();
+        SectionMetrics metrics = SectionInstrumentation.current();
+        long begin = SectionInstrumentation.start(metrics);
+
+        T hitData = null;
 
         //命中判断
         for (Section<T> section : source) {
-            if ((startDate >= section.startDate && startDate <= section.endDate) || (endDate >= section.startDate
-                    && endDate <= section.endDate)) {
-                //开始时间或结束时间命中
-                hitSectionList.add(section);
+            if (section.startDate <= endDate && startDate <= section.endDate
+                    && (hitData == null || comparator.compare(section.data, hitData) < 0)) {
+                hitData = section.data;
             }
         }
 
-        if (CollectionUtils.isEmpty(hitSectionList)) {
-            return null;
+        if (metrics != null) {
+            metrics.onHit(source.size(), System.nanoTime() - begin);
         }
 
-        List<T> originLists = getDataList(hitSectionList);
+        return hitData;
+    }
 
-        TreeSet<T> sortSet = sort(originLists, comparator);
+    /**
+     * hit API
+     * <p/>
+     * 在索引中命中与[startDate,endDate]有交集的所有区间，返回比较器排序最靠前的data，O(log n + k)
+     *
+     * @param index
+     * @param comparator
+     * @param startDate
+     * @param endDate
+     * @param <T>
+     * @return
+     */
+    public static <T> T hit(SectionIndex<T> index, Comparator<T> comparator, int startDate, int endDate) {
+
+        checkArgument(index != null && null != comparator, "index and comparator can't be empty");
 
-        return sortSet.first();
+        return index.hit(comparator, startDate, endDate);
     }
 
     /**
-     * 对data进行排序
+     * hit API
+     * <p/>
+     * 在索引中命中与[startDate,endDate]有交集的所有区间，O(log n + k)
      *
-     * @param source
-     * @param comparator
+     * @param index
+     * @param startDate
+     * @param endDate
      * @param <T>
      * @return
      */
-    private static <T> TreeSet<T> sort(List<T> source, Comparator<T> comparator) {
-        checkArgument(CollectionUtils.isNotEmpty(source) && null != comparator, "source and comparator can't be empty");
-        TreeSet<T> sortSet = new TreeSet<>(comparator);
-        sortSet.addAll(source);
-        return sortSet;
+    public static <T> List<Section<T>> hitAll(SectionIndex<T> index, int startDate, int endDate) {
+
+        checkArgument(index != null, "index can't be null");
+
+        return index.overlaps(startDate, endDate);
     }
 
     /**
@@ -497,8 +575,8 @@ public final class Section<T> implements Comparable<Section<T>> {
         checkArgument(one != null && other != null, "one and other can't be empty");
         checkArgument(one.isConnected(other), "two section must be isConnected");
 
-        return build(Math.min(one.startDate, other.startDate), Math.max(other.endDate, one.endDate), one.data,
-                one.comparator);
+        return buildCanonical(Math.min(one.startDate, other.startDate), Math.max(other.endDate, one.endDate),
+                one.data, one.comparator);
     }
 
     /**
@@ -513,26 +591,14 @@ public final class Section<T> implements Comparable<Section<T>> {
      */
     public static boolean hasRepeat(List<Section> sections) {
         checkArgument(CollectionUtils.isNotEmpty(sections), "sections can't be empty");
-
-        Section[] sectionArray = sections.toArray(new Section[0]);
-
-        int length = sectionArray.length;
-
-        //对起始时间排序
-        quickSort(sectionArray, 0, length - 1);
-
-        for (int i = 1; i < length; i++) {
-            //出现跨区间
-            if (sectionArray[i - 1].startDate >= sectionArray[i].startDate
-                    || sectionArray[i - 1].endDate >= sectionArray[i].startDate) {
-                return true;
-            }
-        }
-        return false;
+        return SectionOverlaps.hasOverlap(sections);
     }
 
     /**
      * 对象构造器
+     * <p/>
+     * comparator为{@link SectionDictionary}时，data替换为字典中的规范实例，
+     * 之后同一字典下的区间比较数据只需比较引用
      *
      * @param startDate
      * @param endDate
@@ -549,69 +615,71 @@ public final class Section<T> implements Comparable<Section<T>> {
                 "start and end is illegal,that must comply with the format:'yyyyMMdd',now is startDate:%s endDate:%s.",
                 startDate, endDate);
 
-        return new Section<>(startDate, endDate, data, comparator);
+        return new Section<>(startDate, endDate, canonical(data, comparator), comparator);
     }
 
     /**
-     * 自己跟自己merge
+     * 对象构造器（不校验端点，调用方需保证端点合法，内部使用）
      *
-     * @param sectionList
+     * @param startDate
+     * @param endDate
+     * @param data
+     * @param comparator
      * @param <T>
      * @return
      */
-    private static <T> List<Section<T>> mergeSelf(List<Section<T>> sectionList) {
-
-        checkArgument(CollectionUtils.isNotEmpty(sectionList), "sectionList can't be empty");
-        if (sectionList.size() == 1) {
-            return sectionList;
-        }
-
-        List<Section<T>> tmpList = new ArrayList<>();
-        tmpList.add(sectionList.get(0));
-        for (int i = 1; i < sectionList.size(); i++) {
-            tmpList = merge(tmpList, sectionList.get(i), false);
-        }
+    static <T> Section<T> buildUnchecked(int startDate, int endDate, T data, Comparator<T> comparator) {
+        return new Section<>(startDate, endDate, canonical(data, comparator), comparator);
+    }
 
-        return tmpList;
+    /**
+     * 对象构造器（不校验端点，不查字典，内部使用）
+     * <p/>
+     * data需已是comparator下的规范实例，如截取已有区间、或数据取自作为comparator的字典，
+     * 避免merge等热点路径上每构造一个区间都查一次字典
+     *
+     * @param startDate
+     * @param endDate
+     * @param data
+     * @param comparator
+     * @param <T>
+     * @return
+     */
+    static <T> Section<T> buildCanonical(int startDate, int endDate, T data, Comparator<T> comparator) {
+        return new Section<>(startDate, endDate, data, comparator);
     }
 
     /**
-     * 快速排序的一次划分
+     * 字典中的规范实例
      *
-     * @param a
-     * @param b
-     * @param e
+     * @param data
+     * @param comparator
+     * @param <T>
      * @return
      */
-    private static int partition(Section a[], int b, int e) {
-        Section temp = a[b];
-        while (b < e) {
-            while (b < e && a[e].startDate >= temp.startDate)
-                e--;
-            if (b < e)
-                a[b] = a[e];
-            while (b < e && a[b].startDate <= temp.startDate)
-                b++;
-            if (b < e)
-                a[e] = a[b];
+    @SuppressWarnings("unchecked")
+    private static <T> T canonical(T data, Comparator<?> comparator) {
+        if (comparator instanceof SectionDictionary) {
+            return ((SectionDictionary<T>) comparator).canonical(data);
         }
-        a[b] = temp;
-        return b;
+        return data;
     }
 
     /**
-     * 快排
+     * 自己跟自己merge
      *
-     * @param a
-     * @param b
-     * @param e
+     * @param sectionList
+     * @param <T>
+     * @return
      */
-    private static void quickSort(Section a[], int b, int e) {
-        if (b >= e)
-            return;
-        int i = partition(a, b, e);
-        quickSort(a, b, i - 1);
-        quickSort(a, i + 1, e);
+    private static <T> List<Section<T>> mergeSelf(List<Section<T>> sectionList) {
+
+        checkArgument(CollectionUtils.isNotEmpty(sectionList), "sectionList can't be empty");
+        if (sectionList.size() == 1) {
+            return sectionList;
+        }
+
+        return SectionMerger.merge(sectionList, Collections.<Section<T>>emptyList());
     }
 
     /**
@@ -639,7 +707,7 @@ public final class Section<T> implements Comparable<Section<T>> {
         checkArgument(other != null, "other can't be empty");
 
         //判断数据是否相等
-        if (this.comparator.compare(this.data, other.data) != EQUAL) {
+        if (!this.isSameData(other)) {
             return false;
         }
 
@@ -648,6 +716,34 @@ public final class Section<T> implements Comparable<Section<T>> {
 
     }
 
+    /**
+     * 判断和另一个区间的数据是否相等
+     *
+     * @param other
+     * @return
+     */
+    boolean isSameData(Section<T> other) {
+
+        if (!comparesData(other)) {
+            return this.data == other.data;
+        }
+
+        return this.comparator.compare(this.data, other.data) == EQUAL;
+    }
+
+    /**
+     * 判断和另一个区间的数据是否相等时是否需要调用比较器
+     * <p/>
+     * 引用相同时相等；同一字典下的数据都是规范实例，引用不同即数据不同，都不需要调用比较器
+     *
+     * @param other
+     * @return
+     */
+    boolean comparesData(Section<T> other) {
+        return this.data != other.data
+                && !(this.comparator == other.comparator && this.comparator instanceof SectionDictionary);
+    }
+
     /**
      * 判断和另一个区间是否相交(区间时间上)
      *
@@ -721,6 +817,10 @@ public final class Section<T> implements Comparable<Section<T>> {
             return this.endDate - that.endDate;
         }
 
+        if (this.data == that.data) {
+            return EQUAL;
+        }
+
         return this.comparator.compare(this.data, that.data);
     }
 
@@ -735,4 +835,8 @@ public final class Section<T> implements Comparable<Section<T>> {
     public T getData() {
         return data;
     }
+
+    Comparator<T> getComparator() {
+        return comparator;
+    }
 }
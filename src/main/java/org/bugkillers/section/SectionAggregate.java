@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+/**
+ * 一段日期上的聚合结果（按天加权）
+ */
+public final class SectionAggregate {
+
+    /**
+     * 空结果
+     */
+    static final SectionAggregate EMPTY = new SectionAggregate(0L, 0D, Double.NaN, Double.NaN);
+
+    /**
+     * 有数据的天数
+     */
+    private final long count;
+
+    /**
+     * 每天数值之和
+     */
+    private final double sum;
+
+    /**
+     * 最小值，没有数据为NaN
+     */
+    private final double min;
+
+    /**
+     * 最大值，没有数据为NaN
+     */
+    private final double max;
+
+    SectionAggregate(long count, double sum, double min, double max) {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * 平均值，没有数据为NaN
+     *
+     * @return
+     */
+    public double getAverage() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", sum=" + sum + ", min=" + min + ", max=" + max;
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionTimeline.splice;
+import static org.bugkillers.section.SectionUtil.isDate;
+import static org.bugkillers.section.SectionUtil.toEpochDay;
+
+/**
+ * 区间聚合索引（非线程安全）
+ * <p/>
+ * 按左端点排序的treap，每个节点记录子树覆盖的日期范围、天数、按天加权的和、最小值和最大值。
+ * 任意日期范围的 sum/min/max/count 查询为 O(log n)：子树完全落在范围内时直接使用子树的聚合值，
+ * 只有范围两端的路径需要向下展开。
+ * apply与{@link SectionTimeline#apply(Section)}语义相同，只替换受影响的区间，期望 O(k + log n)。
+ */
+public final class SectionAggregateIndex<T> {
+
+    /**
+     * 数值
+     */
+    private final SectionValueExtractor<T> extractor;
+
+    /**
+     * 节点优先级
+     */
+    private final Random random = new Random();
+
+    private Node<T> root;
+
+    /**
+     * 由merge后的Section集合（区间不重复，可乱序）构造索引
+     *
+     * @param source
+     * @param extractor
+     * @param <T>
+     * @return
+     */
+    public static <T> SectionAggregateIndex<T> build(List<Section<T>> source, SectionValueExtractor<T> extractor) {
+
+        checkArgument(source != null && extractor != null, "source and extractor can't be null");
+
+        SectionAggregateIndex<T> index = new SectionAggregateIndex<>(extractor);
+        index.root = index.build(SectionOverlaps.sortedDisjoint(source));
+        return index;
+    }
+
+    /**
+     * [startDate,endDate]上的聚合结果
+     *
+     * @param startDate
+     * @param endDate
+     * @return
+     */
+    public SectionAggregate aggregate(int startDate, int endDate) {
+
+        checkArgument(isDate(startDate) && isDate(endDate) && startDate <= endDate,
+                "start and end is illegal,that must comply with the format:'yyyyMMdd',now is startDate:%s endDate:%s.",
+                startDate, endDate);
+
+        Accumulator accumulator = new Accumulator();
+        aggregate(root, toEpochDay(startDate), toEpochDay(endDate), accumulator);
+        return accumulator.count == 0 ? SectionAggregate.EMPTY
+                : new SectionAggregate(accumulator.count, accumulator.sum, accumulator.min, accumulator.max);
+    }
+
+    /**
+     * [startDate,endDate]上每天数值之和
+     *
+     * @param startDate
+     * @param endDate
+     * @return
+     */
+    public double sum(int startDate, int endDate) {
+        return aggregate(startDate, endDate).getSum();
+    }
+
+    /**
+     * [startDate,endDate]上的最小值，没有数据为NaN
+     *
+     * @param startDate
+     * @param endDate
+     * @return
+     */
+    public double min(int startDate, int endDate) {
+        return aggregate(startDate, endDate).getMin();
+    }
+
+    /**
+     * [startDate,endDate]上的最大值，没有数据为NaN
+     *
+     * @param startDate
+     * @param endDate
+     * @return
+     */
+    public double max(int startDate, int endDate) {
+        return aggregate(startDate, endDate).getMax();
+    }
+
+    /**
+     * [startDate,endDate]上有数据的天数
+     *
+     * @param startDate
+     * @param endDate
+     * @return
+     */
+    public long count(int startDate, int endDate) {
+        return aggregate(startDate, endDate).getCount();
+    }
+
+    /**
+     * 用target覆盖索引
+     *
+     * @param target
+     */
+    public void apply(Section<T> target) {
+
+        checkArgument(target != null, "target can't be null");
+
+        int lower = toEpochDay(target.getLowerPoint());
+        int upper = toEpochDay(target.getUpperPoint());
+
+        //左端点小于等于lower-1的最后一个区间与target相连时，从它开始替换
+        Node<T> floor = floor(root, lower - 1);
+        int from = floor != null && floor.end >= lower - 1 ? floor.start : lower;
+
+        //[from, upper+1]之间的区间都与target相交或相连
+        Node<T>[] left = split(root, from);
+        Node<T>[] middle = split(left[1], upper + 2);
+
+        List<Section<T>> touched = Lists.newArrayList();
+        collect(middle[0], touched);
+
+        root = merge(merge(left[0], build(splice(touched, target))), middle[1]);
+    }
+
+    /**
+     * 区间个数
+     *
+     * @return
+     */
+    public int size() {
+        return root == null ? 0 : root.size;
+    }
+
+    /**
+     * 导出为Section集合（按左端点排序）
+     *
+     * @return
+     */
+    public List<Section<T>> toList() {
+        List<Section<T>> sections = Lists.newArrayListWithCapacity(size());
+        collect(root, sections);
+        return sections;
+    }
+
+    /**
+     * 累加node子树中与[start,end]相交的部分
+     */
+    private static <T> void aggregate(Node<T> node, int start, int end, Accumulator accumulator) {
+
+        while (node != null && node.spanEnd >= start && node.spanStart <= end) {
+
+            if (start <= node.spanStart && node.spanEnd <= end) {
+                accumulator.add(node.days, node.sum, node.min, node.max);
+                return;
+            }
+
+            if (node.start > end) {
+                node = node.left;
+                continue;
+            }
+            if (node.end < start) {
+                node = node.right;
+                continue;
+            }
+
+            //范围跨过当前节点：左子树只在左边界处展开，右子树只在右边界处展开
+            int from = Math.max(start, node.start);
+            int to = Math.min(end, node.end);
+            accumulator.add(to - from + 1, node.value * (to - from + 1), node.value, node.value);
+            aggregate(node.left, start, end, accumulator);
+            node = node.right;
+        }
+    }
+
+    /**
+     * 左端点小于等于day的最后一个节点
+     */
+    private static <T> Node<T> floor(Node<T> node, int day) {
+        Node<T> floor = null;
+        while (node != null) {
+            if (node.start <= day) {
+                floor = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return floor;
+    }
+
+    /**
+     * 按左端点拆分为 [0]: start < key 和 [1]: start >= key
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] split(Node<T> node, int key) {
+
+        if (node == null) {
+            return (Node<T>[]) new Node<?>[2];
+        }
+
+        Node<T>[] parts;
+        if (node.start < key) {
+            parts = split(node.right, key);
+            node.right = parts[0];
+            parts[0] = node.update();
+        } else {
+            parts = split(node.left, key);
+            node.left = parts[1];
+            parts[1] = node.update();
+        }
+        return parts;
+    }
+
+    /**
+     * 合并两个treap，left中的左端点都小于right
+     */
+    private static <T> Node<T> merge(Node<T> left, Node<T> right) {
+
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return left.update();
+        }
+        right.left = merge(left, right.left);
+        return right.update();
+    }
+
+    private static <T> void collect(Node<T> node, List<Section<T>> sections) {
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            sections.add(node.section);
+            node = node.right;
+        }
+    }
+
+    /**
+     * 由按左端点排序的区间构造treap（笛卡尔树，O(n)）
+     */
+    private Node<T> build(List<Section<T>> sections) {
+
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        for (Section<T> section : sections) {
+            Node<T> node = new Node<>(section, extractor.valueOf(section.getData()), random.nextInt());
+            Node<T> last = null;
+            while (!stack.isEmpty() && stack.peek().priority < node.priority) {
+                last = stack.pop().update();
+            }
+            node.left = last;
+            if (!stack.isEmpty()) {
+                stack.peek().right = node;
+            }
+            stack.push(node);
+        }
+
+        Node<T> top = null;
+        while (!stack.isEmpty()) {
+            top = stack.pop().update();
+        }
+        return top;
+    }
+
+    private SectionAggregateIndex(SectionValueExtractor<T> extractor) {
+        this.extractor = extractor;
+    }
+
+    /**
+     * 查询时的累加
+     */
+    private static final class Accumulator {
+
+        private long count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        void add(long days, double sum, double min, double max) {
+            this.count += days;
+            this.sum += sum;
+            this.min = Math.min(this.min, min);
+            this.max = Math.max(this.max, max);
+        }
+    }
+
+    /**
+     * treap节点
+     */
+    private static final class Node<T> {
+
+        private final Section<T> section;
+        private final int start;
+        private final int end;
+        private final double value;
+        private final int priority;
+
+        private Node<T> left;
+        private Node<T> right;
+
+        /**
+         * 子树聚合值
+         */
+        private int size;
+        private int spanStart;
+        private int spanEnd;
+        private long days;
+        private double sum;
+        private double min;
+        private double max;
+
+        Node(Section<T> section, double value, int priority) {
+            this.section = section;
+            this.start = toEpochDay(section.getLowerPoint());
+            this.end = toEpochDay(section.getUpperPoint());
+            this.value = value;
+            this.priority = priority;
+        }
+
+        /**
+         * 由子节点重新计算聚合值
+         */
+        Node<T> update() {
+            int length = end - start + 1;
+            size = 1;
+            spanStart = start;
+            spanEnd = end;
+            days = length;
+            sum = value * length;
+            min = value;
+            max = value;
+            if (left != null) {
+                size += left.size;
+                spanStart = left.spanStart;
+                days += left.days;
+                sum += left.sum;
+                min = Math.min(min, left.min);
+                max = Math.max(max, left.max);
+            }
+            if (right != null) {
+                size += right.size;
+                spanEnd = right.spanEnd;
+                days += right.days;
+                sum += right.sum;
+                min = Math.min(min, right.min);
+                max = Math.max(max, right.max);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.bugkillers.section.SectionUtil.isDate;
+import static org.bugkillers.section.SectionUtil.toEpochDay;
+
+/**
+ * 时间线的集合运算：交、差、并、补
+ * <p/>
+ * 输入为merge后的结果（区间不重复，乱序时先排序），同时向前遍历一次，复杂度 O(n+m)，不按天展开。
+ * 结果按左端点排序，相连（相差一个自然日）且数据相同的区间合并为一个，端点未变化的区间复用原对象。
+ */
+public final class SectionAlgebra {
+
+    /**
+     * 交集：两边都覆盖的日期
+     */
+    private static final int INTERSECT = 0;
+
+    /**
+     * 差集：左边覆盖、右边未覆盖的日期
+     */
+    private static final int SUBTRACT = 1;
+
+    /**
+     * 并集：任一边覆盖的日期
+     */
+    private static final int UNION = 2;
+
+    /**
+     * 冲突时保留左边的数据
+     */
+    private static final SectionResolver<Object> LEFT = new SectionResolver<Object>() {
+        @Override
+        public Object resolve(Object left, Object right) {
+            return left;
+        }
+    };
+
+    private SectionAlgebra() {
+
+    }
+
+    /**
+     * 交集，数据取left的数据
+     *
+     * @param left
+     * @param right
+     * @param <T>
+     * @return
+     */
+    public static <T> List<Section<T>> intersect(List<Section<T>> left, List<Section<T>> right) {
+        return intersect(left, right, SectionAlgebra.<T>left());
+    }
+
+    /**
+     * 交集，数据由resolver决定
+     *
+     * @param left
+     * @param right
+     * @param resolver
+     * @param <T>
+     * @return
+     */
+    public static <T> List<Section<T>> intersect(List<Section<T>> left, List<Section<T>> right,
+                                                 SectionResolver<T> resolver) {
+        return walk(left, right, resolver, INTERSECT);
+    }
+
+    /**
+     * 差集：从left中去掉right覆盖的日期（如去掉不可用日期）
+     *
+     * @param left
+     * @param right
+     * @param <T>
+     * @return
+     */
+    public static <T> List<Section<T>> subtract(List<Section<T>> left, List<Section<T>> right) {
+        return walk(left, right, SectionAlgebra.<T>left(), SUBTRACT);
+    }
+
+    /**
+     * 并集，两边都覆盖时数据取left的数据
+     *
+     * @param left
+     * @param right
+     * @param <T>
+     * @return
+     */
+    public static <T> List<Section<T>> union(List<Section<T>> left, List<Section<T>> right) {
+        return union(left, right, SectionAlgebra.<T>left());
+    }
+
+    /**
+     * 并集，两边都覆盖时数据由resolver决定
+     *
+     * @param left
+     * @param right
+     * @param resolver
+     * @param <T>
+     * @return
+     */
+    public static <T> List<Section<T>> union(List<Section<T>> left, List<Section<T>> right,
+                                             SectionResolver<T> resolver) {
+        return walk(left, right, resolver, UNION);
+    }
+
+    /**
+     * 补集：[startDate,endDate]中未被source覆盖的日期，数据为data
+     *
+     * @param source
+     * @param startDate
+     * @param endDate
+     * @param data
+     * @param comparator
+     * @param <T>
+     * @return
+     */
+    public static <T> List<Section<T>> complement(List<Section<T>> source, int startDate, int endDate, T data,
+                                                  Comparator<T> comparator) {
+
+        checkArgument(source != null, "source can't be null");
+        checkArgument(data != null && comparator != null, "data and comparator can't be null");
+        checkArgument(isDate(startDate) && isDate(endDate) && startDate <= endDate,
+                "start and end is illegal,that must comply with the format:'yyyyMMdd',now is startDate:%s endDate:%s.",
+                startDate, endDate);
+
+        List<Section<T>> sections = SectionOverlaps.sortedDisjoint(source);
+
+        int end = toEpochDay(endDate);
+        int point = toEpochDay(startDate);
+
+        List<Section<T>> result = Lists.newArrayList();
+        for (Section<T> section : sections) {
+            if (point > end) {
+                break;
+            }
+            int lower = toEpochDay(section.getLowerPoint());
+            if (lower > point) {
+                int gapEnd = Math.min(lower - 1, end);
+                result.add(Section.buildUnchecked(fromEpochDay(point), fromEpochDay(gapEnd), data, comparator));
+            }
+            point = Math.max(point, toEpochDay(section.getUpperPoint()) + 1);
+        }
+
+        if (point <= end) {
+            result.add(Section.buildUnchecked(fromEpochDay(point), endDate, data, comparator));
+        }
+
+        return result;
+    }
+
+    /**
+     * 同时向前遍历两个时间线
+     */
+    private static <T> List<Section<T>> walk(List<Section<T>> left, List<Section<T>> right,
+                                             SectionResolver<T> resolver, int operation) {
+
+        checkArgument(left != null && right != null, "left and right can't be null");
+        checkArgument(resolver != null, "resolver can't be null");
+
+        SectionWalker<T> walker = SectionWalker.of(SectionOverlaps.sortedDisjoint(left),
+                SectionOverlaps.sortedDisjoint(right));
+
+        Run<T> run = new Run<>();
+
+        while (walker.next()) {
+
+            //交集、差集在左边读完后不会再有结果
+            if (walker.exhausted(0) && operation != UNION) {
+                break;
+            }
+
+            int point = walker.start();
+            int end = walker.end();
+
+            Section<T> leftSection = walker.section(0);
+            Section<T> rightSection = walker.section(1);
+
+            if (leftSection != null && rightSection != null) {
+                if (operation != SUBTRACT) {
+                    T data = resolver.resolve(leftSection.getData(), rightSection.getData());
+                    if (data != null) {
+                        run.add(point, end, data, leftSection);
+                    }
+                }
+            } else if (leftSection != null) {
+                if (operation != INTERSECT) {
+                    run.add(point, end, leftSection.getData(), leftSection);
+                }
+            } else if (operation == UNION) {
+                run.add(point, end, rightSection.getData(), rightSection);
+            }
+        }
+
+        return run.finish();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> SectionResolver<T> left() {
+        return (SectionResolver<T>) LEFT;
+    }
+
+    /**
+     * 待输出的区间，相连且数据相同时延长
+     */
+    private static final class Run<T> {
+
+        private final List<Section<T>> result = Lists.newArrayList();
+
+        /**
+         * 数据和比较器来源的区间
+         */
+        private Section<T> section;
+
+        private T data;
+
+        private int start;
+
+        private int end;
+
+        void add(int start, int end, T data, Section<T> section) {
+
+            if (this.section != null && this.end + 1 == start
+                    && (this.data == data || this.section.getComparator().compare(this.data, data) == Section.EQUAL)) {
+                this.end = end;
+                return;
+            }
+
+            flush();
+            this.section = section;
+            this.data = data;
+            this.start = start;
+            this.end = end;
+        }
+
+        List<Section<T>> finish() {
+            flush();
+            return result;
+        }
+
+        private void flush() {
+
+            if (section == null) {
+                return;
+            }
+
+            if (data == section.getData() && toEpochDay(section.getLowerPoint()) == start
+                    && toEpochDay(section.getUpperPoint()) == end) {
+                result.add(section);
+            } else {
+                result.add(Section.buildUnchecked(fromEpochDay(start), fromEpochDay(end), data,
+                        section.getComparator()));
+            }
+            section = null;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionUtil.MAX_EPOCH_DAY;
+import static org.bugkillers.section.SectionUtil.MIN_EPOCH_DAY;
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.bugkillers.section.SectionUtil.toEpochDay;
+
+/**
+ * Section集合的紧凑二进制编解码（线程安全）
+ * <p/>
+ * 格式：
+ * <pre>
+ * byte   格式版本
+ * varint 区间个数
+ * 每个区间：
+ *   zigzag varint 左端点与上一个区间右端点的差（epoch day，第一个区间为左端点本身）
+ *   varint        区间长度（右端点 - 左端点）
+ *   varint        数据引用：0 表示后面紧跟新数据（{@link SectionDataCodec}编码），k 表示第k个出现过的数据
+ * </pre>
+ * 区间需按左端点排序且不重复（一般为merge的结果）。数据按equals去重，比较器相等但equals不同的数据分别保留。
+ * 读取时在epoch day上校验端点和顺序，不再逐个解析日期。
+ */
+public final class SectionBinaryCodec<T> {
+
+    /**
+     * 格式版本
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * 数据编解码
+     */
+    private final SectionDataCodec<T> dataCodec;
+
+    /**
+     * 读取时使用的比较器
+     */
+    private final Comparator<T> comparator;
+
+    /**
+     * 构造编解码器
+     *
+     * @param dataCodec
+     * @param comparator
+     * @param <T>
+     * @return
+     */
+    public static <T> SectionBinaryCodec<T> create(SectionDataCodec<T> dataCodec, Comparator<T> comparator) {
+        checkArgument(dataCodec != null && comparator != null, "dataCodec and comparator can't be null");
+        return new SectionBinaryCodec<>(dataCodec, comparator);
+    }
+
+    /**
+     * 编码为字节数组
+     *
+     * @param sections
+     * @return
+     * @throws IOException
+     */
+    public byte[] encode(List<Section<T>> sections) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        write(sections, output);
+        return output.toByteArray();
+    }
+
+    /**
+     * 从字节数组解码
+     *
+     * @param bytes
+     * @return
+     * @throws IOException
+     */
+    public List<Section<T>> decode(byte[] bytes) throws IOException {
+        checkArgument(bytes != null, "bytes can't be null");
+        return read(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * 写出到流（不关闭流）
+     *
+     * @param sections
+     * @param stream
+     * @throws IOException
+     */
+    public void write(List<Section<T>> sections, OutputStream stream) throws IOException {
+
+        checkArgument(sections != null && stream != null, "sections and stream can't be null");
+
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+
+        output.writeByte(FORMAT_VERSION);
+        writeVarint(output, sections.size());
+
+        //本次写出的数据 -> 第几个出现（从1开始），按equals去重
+        Map<T, Integer> refs = Maps.newHashMap();
+
+        int previous = 0;
+        Section<T> last = null;
+        for (Section<T> section : sections) {
+            if (last != null) {
+                checkArgument(last.getUpperPoint() < section.getLowerPoint(),
+                        "sections must be sorted and not repeated, now is %s-%s after %s-%s",
+                        section.getLowerPoint(), section.getUpperPoint(), last.getLowerPoint(), last.getUpperPoint());
+            }
+
+            int start = toEpochDay(section.getLowerPoint());
+            int end = toEpochDay(section.getUpperPoint());
+
+            int delta = start - previous;
+            writeVarint(output, delta << 1 ^ delta >> 31);
+            writeVarint(output, end - start);
+
+            Integer ref = refs.get(section.getData());
+            if (ref == null) {
+                refs.put(section.getData(), refs.size() + 1);
+                writeVarint(output, 0);
+                dataCodec.write(section.getData(), output);
+            } else {
+                writeVarint(output, ref);
+            }
+
+            previous = end;
+            last = section;
+        }
+
+        output.flush();
+    }
+
+    /**
+     * 从流中读取
+     *
+     * @param stream
+     * @return
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    public List<Section<T>> read(InputStream stream) throws IOException {
+
+        checkArgument(stream != null, "stream can't be null");
+
+        DataInputStream input = new DataInputStream(stream);
+
+        int version = input.readUnsignedByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("unsupported format version:" + version);
+        }
+
+        int count = readVarint(input);
+        if (count < 0) {
+            throw new IOException("illegal section count:" + count);
+        }
+        List<Section<T>> sections = Lists.newArrayListWithCapacity(Math.min(count, 1 << 16));
+        List<T> values = Lists.newArrayList();
+
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            int zigzag = readVarint(input);
+            long start = previous + (zigzag >>> 1 ^ -(zigzag & 1));
+            long end = start + (readVarint(input) & 0xFFFFFFFFL);
+
+            if (start < MIN_EPOCH_DAY || end > MAX_EPOCH_DAY) {
+                throw new IOException("section out of range, index:" + i);
+            }
+            if (i > 0 && start <= previous) {
+                throw new IOException("sections must be sorted and not repeated, index:" + i);
+            }
+
+            int ref = readVarint(input);
+            T data;
+            if (ref == 0) {
+                data = dataCodec.read(input);
+                if (data == null) {
+                    throw new IOException("data can't be null, index:" + i);
+                }
+                values.add(data);
+            } else if (ref <= values.size()) {
+                data = values.get(ref - 1);
+            } else {
+                throw new IOException("illegal data reference:" + ref + ", index:" + i);
+            }
+
+            sections.add(Section.buildUnchecked(fromEpochDay((int) start), fromEpochDay((int) end), data,
+                    comparator));
+            previous = end;
+        }
+
+        return sections;
+    }
+
+    private static void writeVarint(DataOutputStream output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    private SectionBinaryCodec(SectionDataCodec<T> dataCodec, Comparator<T> comparator) {
+        this.dataCodec = dataCodec;
+        this.comparator = comparator;
+    }
+}
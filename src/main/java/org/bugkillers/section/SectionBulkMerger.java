@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 多key并行批量merge
+ * <p/>
+ * 每个key独立执行{@link Section#merge(List, List)}，在ForkJoinPool上分治执行（work stealing）。
+ */
+public final class SectionBulkMerger {
+
+    /**
+     * 每个子任务最多处理的key个数
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * 进度回调（可能在多个线程中被调用）
+     */
+    public interface ProgressListener {
+
+        /**
+         * @param completed 已完成的key个数
+         * @param total     key总数
+         */
+        void onProgress(int completed, int total);
+    }
+
+    private SectionBulkMerger() {
+
+    }
+
+    /**
+     * 在公共ForkJoinPool上批量merge，单个key失败不影响其他key
+     *
+     * @param source
+     * @param target
+     * @param <K>
+     * @param <T>
+     * @return
+     */
+    public static <K, T> SectionBulkResult<K, T> merge(Map<K, List<Section<T>>> source,
+                                                       Map<K, List<Section<T>>> target) {
+        return merge(ForkJoinPool.commonPool(), source, target, false, null);
+    }
+
+    /**
+     * 批量merge
+     * <p/>
+     * key为source和target的并集，每个key的结果为Section.merge(source.get(key), target.get(key))，
+     * 只在source中的key结果为source自己跟自己merge
+     *
+     * @param pool
+     * @param source
+     * @param target
+     * @param failFast true 出现第一个失败时终止并抛出异常  false 记录失败继续执行
+     * @param listener 进度回调，可为null
+     * @param <K>
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, T> SectionBulkResult<K, T> merge(ForkJoinPool pool, Map<K, List<Section<T>>> source,
+                                                       Map<K, List<Section<T>>> target, boolean failFast,
+                                                       ProgressListener listener) {
+
+        checkArgument(pool != null, "pool can't be null");
+        checkArgument(source != null && target != null, "source and target can't be null");
+
+        Set<K> keySet = Sets.union(source.keySet(), target.keySet());
+        K[] keys = (K[]) keySet.toArray();
+
+        MergeTask<K, T> task = new MergeTask<>(keys, 0, keys.length, source, target, failFast, listener,
+                new ConcurrentHashMap<K, List<Section<T>>>(keys.length), new ConcurrentHashMap<K, RuntimeException>(),
+                new AtomicInteger());
+
+        pool.invoke(task);
+
+        return new SectionBulkResult<>(task.results, task.failures);
+    }
+
+    /**
+     * 分治任务
+     */
+    private static final class MergeTask<K, T> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final K[] keys;
+        private final int from;
+        private final int to;
+        private final Map<K, List<Section<T>>> source;
+        private final Map<K, List<Section<T>>> target;
+        private final boolean failFast;
+        private final ProgressListener listener;
+        private final Map<K, List<Section<T>>> results;
+        private final Map<K, RuntimeException> failures;
+        private final AtomicInteger completed;
+
+        private MergeTask(K[] keys, int from, int to, Map<K, List<Section<T>>> source,
+                          Map<K, List<Section<T>>> target, boolean failFast, ProgressListener listener,
+                          Map<K, List<Section<T>>> results, Map<K, RuntimeException> failures,
+                          AtomicInteger completed) {
+            this.keys = keys;
+            this.from = from;
+            this.to = to;
+            this.source = source;
+            this.target = target;
+            this.failFast = failFast;
+            this.listener = listener;
+            this.results = results;
+            this.failures = failures;
+            this.completed = completed;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (to - from > BATCH_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(fork(from, middle), fork(middle, to));
+                return;
+            }
+
+            for (int i = from; i < to; i++) {
+                K key = keys[i];
+                try {
+                    List<Section<T>> sourceSections = source.get(key);
+                    List<Section<T>> targetSections = target.get(key);
+                    //target为空时source自己跟自己merge，与source为空时的处理对称
+                    List<Section<T>> merged = CollectionUtils.isEmpty(targetSections)
+                            ? Section.merge(Collections.<Section<T>>emptyList(), sourceSections, true)
+                            : Section.merge(sourceSections, targetSections);
+                    if (merged != null) {
+                        //只有一个区间时merge直接返回入参，复制一份，结果不引用调用方的list
+                        results.put(key, merged == sourceSections || merged == targetSections
+                                ? Lists.newArrayList(merged) : merged);
+                    }
+                } catch (RuntimeException e) {
+                    if (failFast) {
+                        throw e;
+                    }
+                    failures.put(key, e);
+                }
+            }
+
+            int done = completed.addAndGet(to - from);
+            if (listener != null) {
+                listener.onProgress(done, keys.length);
+            }
+        }
+
+        private MergeTask<K, T> fork(int from, int to) {
+            return new MergeTask<>(keys, from, to, source, target, failFast, listener, results, failures,
+                    completed);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量merge结果
+ */
+public final class SectionBulkResult<K, T> {
+
+    /**
+     * key -> merge结果
+     */
+    private final Map<K, List<Section<T>>> results;
+
+    /**
+     * key -> merge失败的异常
+     */
+    private final Map<K, RuntimeException> failures;
+
+    SectionBulkResult(Map<K, List<Section<T>>> results, Map<K, RuntimeException> failures) {
+        this.results = Collections.unmodifiableMap(results);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * 成功的key及其merge结果
+     *
+     * @return
+     */
+    public Map<K, List<Section<T>>> getResults() {
+        return results;
+    }
+
+    /**
+     * 失败的key及其异常
+     *
+     * @return
+     */
+    public Map<K, RuntimeException> getFailures() {
+        return failures;
+    }
+
+    /**
+     * 是否全部成功
+     *
+     * @return
+     */
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+}
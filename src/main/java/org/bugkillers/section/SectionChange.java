@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+/**
+ * 两个时间线之间一段日期上的变化
+ */
+public final class SectionChange<T> {
+
+    /**
+     * 变化类型
+     */
+    public enum Type {
+
+        /**
+         * 原来未覆盖，现在覆盖
+         */
+        ADDED,
+
+        /**
+         * 原来覆盖，现在未覆盖
+         */
+        REMOVED,
+
+        /**
+         * 覆盖的数据不同
+         */
+        REPLACED
+    }
+
+    private final Type type;
+
+    /**
+     * 变化部分左端点
+     */
+    private final int lowerPoint;
+
+    /**
+     * 变化部分右端点
+     */
+    private final int upperPoint;
+
+    /**
+     * 原来的数据，ADDED为null
+     */
+    private final T oldData;
+
+    /**
+     * 现在的数据，REMOVED为null
+     */
+    private final T newData;
+
+    SectionChange(Type type, int lowerPoint, int upperPoint, T oldData, T newData) {
+        this.type = type;
+        this.lowerPoint = lowerPoint;
+        this.upperPoint = upperPoint;
+        this.oldData = oldData;
+        this.newData = newData;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getLowerPoint() {
+        return lowerPoint;
+    }
+
+    public int getUpperPoint() {
+        return upperPoint;
+    }
+
+    public T getOldData() {
+        return oldData;
+    }
+
+    public T getNewData() {
+        return newData;
+    }
+
+    @Override
+    public String toString() {
+        return type + " [" + lowerPoint + "," + upperPoint + "] " + oldData + " -> " + newData;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 区间数据的二进制编解码（由使用方实现）
+ */
+public interface SectionDataCodec<T> {
+
+    /**
+     * 写出数据
+     *
+     * @param data
+     * @param output
+     * @throws IOException
+     */
+    void write(T data, DataOutput output) throws IOException;
+
+    /**
+     * 读取数据
+     *
+     * @param input
+     * @return
+     * @throws IOException
+     */
+    T read(DataInput input) throws IOException;
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 区间数据字典（线程安全）
+ * <p/>
+ * 按比较器去重，相等（compare为0）的数据分配同一个id，id从0开始连续分配，第一次放入的实例为规范实例。
+ * 已存在的数据查找不加锁（ConcurrentSkipListMap），只有分配新id时加锁。
+ * <p/>
+ * 字典本身也是比较器：以字典作为比较器构造的Section，data会替换为规范实例，
+ * merge、connect、compareTo中判断数据相等时只需比较引用。
+ */
+public final class SectionDictionary<T> implements Comparator<T> {
+
+    /**
+     * 比较器
+     */
+    private final Comparator<T> comparator;
+
+    /**
+     * 数据 -> id，放入前id对应的数据已发布
+     */
+    private final ConcurrentNavigableMap<T, Integer> ids;
+
+    /**
+     * id -> 数据
+     */
+    private volatile Object[] values = new Object[16];
+
+    /**
+     * 已分配的id个数
+     */
+    private volatile int size;
+
+    /**
+     * 构造空字典
+     *
+     * @param comparator
+     * @param <T>
+     * @return
+     */
+    public static <T> SectionDictionary<T> create(Comparator<T> comparator) {
+        checkArgument(comparator != null, "comparator can't be null");
+        return new SectionDictionary<>(comparator);
+    }
+
+    /**
+     * 获取数据的id，不存在时分配新的id
+     *
+     * @param data
+     * @return
+     */
+    public int intern(T data) {
+
+        checkArgument(data != null, "data can't be null");
+
+        Integer id = ids.get(data);
+        return id != null ? id : add(data);
+    }
+
+    /**
+     * 分配新的id（加锁后重新查找）
+     */
+    private synchronized int add(T data) {
+
+        Integer id = ids.get(data);
+        if (id != null) {
+            return id;
+        }
+
+        int newId = size;
+        Object[] array = values;
+        if (newId == array.length) {
+            array = Arrays.copyOf(array, newId * 2);
+        }
+        array[newId] = data;
+
+        values = array;
+        size = newId + 1;
+        ids.put(data, newId);
+        return newId;
+    }
+
+    /**
+     * 根据id获取数据
+     *
+     * @param id
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int id) {
+        int size = this.size;
+        checkArgument(id >= 0 && id < size, "id out of range");
+        return (T) values[id];
+    }
+
+    /**
+     * 数据的规范实例（不存在时放入字典）
+     *
+     * @param data
+     * @return
+     */
+    public T canonical(T data) {
+        return get(intern(data));
+    }
+
+    /**
+     * 规范实例相同时直接返回相等，否则使用原比较器
+     *
+     * @param o1
+     * @param o2
+     * @return
+     */
+    @Override
+    public int compare(T o1, T o2) {
+        return o1 == o2 ? 0 : comparator.compare(o1, o2);
+    }
+
+    /**
+     * 数据个数
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 比较器
+     *
+     * @return
+     */
+    public Comparator<T> comparator() {
+        return comparator;
+    }
+
+    private SectionDictionary(Comparator<T> comparator) {
+        this.comparator = comparator;
+        this.ids = new ConcurrentSkipListMap<>(comparator);
+    }
+}
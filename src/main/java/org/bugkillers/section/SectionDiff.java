@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+
+/**
+ * 两个时间线的差异
+ * <p/>
+ * 输入为merge后的结果（区间不重复），同时向前遍历一次，复杂度 O(n+m)（乱序时先排序），
+ * 只输出有效数据发生变化的日期范围。数据相同的判断与merge一致。
+ */
+public final class SectionDiff {
+
+    private SectionDiff() {
+
+    }
+
+    /**
+     * before变为after的变化（按日期排序），相连且类型、数据都相同的变化合并为一个
+     *
+     * @param before 可以为空
+     * @param after  可以为空
+     * @param <T>
+     * @return
+     */
+    public static <T> List<SectionChange<T>> diff(List<Section<T>> before, List<Section<T>> after) {
+
+        checkArgument(before != null && after != null, "before and after can't be null");
+
+        SectionWalker<T> walker = SectionWalker.of(SectionOverlaps.sortedDisjoint(before),
+                SectionOverlaps.sortedDisjoint(after));
+
+        List<SectionChange<T>> changes = Lists.newArrayList();
+
+        //待输出的变化
+        SectionChange.Type runType = null;
+        Section<T> runOld = null;
+        Section<T> runNew = null;
+        int runStart = 0;
+        int runEnd = 0;
+
+        while (walker.next()) {
+
+            int point = walker.start();
+            int end = walker.end();
+
+            Section<T> oldSection = walker.section(0);
+            Section<T> newSection = walker.section(1);
+
+            SectionChange.Type type;
+            if (oldSection == null) {
+                type = SectionChange.Type.ADDED;
+            } else if (newSection == null) {
+                type = SectionChange.Type.REMOVED;
+            } else if (oldSection == newSection || oldSection.isSameData(newSection)) {
+                type = null;
+            } else {
+                type = SectionChange.Type.REPLACED;
+            }
+
+            if (type != null) {
+                if (runType == type && runEnd + 1 == point && sameData(runOld, oldSection)
+                        && sameData(runNew, newSection)) {
+                    runEnd = end;
+                } else {
+                    if (runType != null) {
+                        changes.add(change(runType, runStart, runEnd, runOld, runNew));
+                    }
+                    runType = type;
+                    runOld = oldSection;
+                    runNew = newSection;
+                    runStart = point;
+                    runEnd = end;
+                }
+            }
+        }
+
+        if (runType != null) {
+            changes.add(change(runType, runStart, runEnd, runOld, runNew));
+        }
+
+        return changes;
+    }
+
+    /**
+     * 两个区间（可以为null）的数据是否相同
+     */
+    private static <T> boolean sameData(Section<T> one, Section<T> other) {
+        if (one == null || other == null) {
+            return one == other;
+        }
+        return one == other || one.isSameData(other);
+    }
+
+    private static <T> SectionChange<T> change(SectionChange.Type type, int start, int end, Section<T> oldSection,
+                                               Section<T> newSection) {
+        return new SectionChange<>(type, fromEpochDay(start), fromEpochDay(end),
+                oldSection == null ? null : oldSection.getData(), newSection == null ? null : newSection.getData());
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionUtil.LOWER_POINT_ORDER;
+
+/**
+ * Section 索引（不可变）
+ * <p/>
+ * 由merge后的区间构造一次，按左端点排序存放，hit时二分查找，O(log n)且不产生对象。
+ */
+public final class SectionIndex<T> {
+
+    /**
+     * 区间左端点（升序）
+     */
+    private final int[] starts;
+
+    /**
+     * 区间右端点
+     */
+    private final int[] ends;
+
+    /**
+     * 区间数据
+     */
+    private final Object[] data;
+
+    /**
+     * 区间
+     */
+    private final Section<T>[] sections;
+
+    /**
+     * 构造索引
+     * <p/>
+     * source中的区间不能重复，一般为merge的结果
+     *
+     * @param source
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> SectionIndex<T> build(List<Section<T>> source) {
+
+        checkArgument(CollectionUtils.isNotEmpty(source), "source can't be empty");
+
+        Section<T>[] sections = (Section<T>[]) source.toArray(new Section<?>[source.size()]);
+
+        if (!isSorted(sections)) {
+            Arrays.sort(sections, LOWER_POINT_ORDER);
+        }
+
+        int length = sections.length;
+        int[] starts = new int[length];
+        int[] ends = new int[length];
+        Object[] data = new Object[length];
+
+        for (int i = 0; i < length; i++) {
+            Section<T> section = sections[i];
+            starts[i] = section.getLowerPoint();
+            ends[i] = section.getUpperPoint();
+            data[i] = section.getData();
+
+            if (i > 0) {
+                checkArgument(ends[i - 1] < starts[i], "sections can't be repeated, now is %s-%s and %s-%s",
+                        starts[i - 1], ends[i - 1], starts[i], ends[i]);
+            }
+        }
+
+        return new SectionIndex<>(starts, ends, data, sections);
+    }
+
+    /**
+     * 根据日期命中一条数据，不存在返回null
+     *
+     * @param date
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public T hit(int date) {
+
+        SectionMetrics metrics = SectionInstrumentation.current();
+        long begin = SectionInstrumentation.start(metrics);
+
+        int i = floor(date);
+        T hitData = i >= 0 && date <= ends[i] ? (T) data[i] : null;
+
+        if (metrics != null) {
+            metrics.onHit(i >= 0 ? 1 : 0, System.nanoTime() - begin);
+        }
+
+        return hitData;
+    }
+
+    /**
+     * 命中与[startDate,endDate]有交集的所有区间，返回比较器排序最靠前的data，未命中返回null
+     *
+     * @param comparator
+     * @param startDate
+     * @param endDate
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public T hit(Comparator<T> comparator, int startDate, int endDate) {
+
+        checkRange(startDate, endDate);
+
+        SectionMetrics metrics = SectionInstrumentation.current();
+        long begin = SectionInstrumentation.start(metrics);
+
+        T hitData = null;
+
+        int from = first(startDate);
+        int i = from;
+        for (; i < starts.length && starts[i] <= endDate; i++) {
+            if (hitData == null || comparator.compare((T) data[i], hitData) < 0) {
+                hitData = (T) data[i];
+            }
+        }
+
+        if (metrics != null) {
+            metrics.onHit(i - from, System.nanoTime() - begin);
+        }
+
+        return hitData;
+    }
+
+    /**
+     * 与[startDate,endDate]有交集的所有区间（按左端点排序）
+     *
+     * @param startDate
+     * @param endDate
+     * @return
+     */
+    public List<Section<T>> overlaps(int startDate, int endDate) {
+
+        checkRange(startDate, endDate);
+
+        int from = first(startDate);
+        int to = floor(endDate) + 1;
+
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(sections).subList(from, to));
+    }
+
+    /**
+     * 区间个数
+     *
+     * @return
+     */
+    public int size() {
+        return sections.length;
+    }
+
+    /**
+     * 索引中的区间（按左端点排序）
+     *
+     * @return
+     */
+    public List<Section<T>> getSections() {
+        return Collections.unmodifiableList(Arrays.asList(sections));
+    }
+
+    /**
+     * 左端点小于等于date的最后一个区间下标，不存在返回-1
+     *
+     * @param date
+     * @return
+     */
+    int floor(int date) {
+        return SectionUtil.floor(starts, starts.length, date);
+    }
+
+    /**
+     * 右端点大于等于date的第一个区间下标
+     *
+     * @param date
+     * @return
+     */
+    private int first(int date) {
+        int i = floor(date);
+        return i >= 0 && ends[i] >= date ? i : i + 1;
+    }
+
+    private static void checkRange(int startDate, int endDate) {
+        checkArgument(startDate <= endDate, "startDate can't be after endDate, now is startDate:%s endDate:%s.",
+                startDate, endDate);
+    }
+
+    private static boolean isSorted(Section<?>[] sections) {
+        for (int i = 1; i < sections.length; i++) {
+            if (sections[i - 1].getLowerPoint() > sections[i].getLowerPoint()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private SectionIndex(int[] starts, int[] ends, Object[] data, Section<T>[] sections) {
+        this.starts = starts;
+        this.ends = ends;
+        this.data = data;
+        this.sections = sections;
+    }
+}
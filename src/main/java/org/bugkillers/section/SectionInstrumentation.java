@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 监控回调的全局注册（线程安全）
+ * <p/>
+ * 默认不安装，热点路径读到null时直接跳过计时和回调。
+ */
+public final class SectionInstrumentation {
+
+    /**
+     * 当前安装的回调，未安装为null
+     */
+    private static volatile SectionMetrics metrics;
+
+    private SectionInstrumentation() {
+
+    }
+
+    /**
+     * 安装回调，替换已安装的回调
+     *
+     * @param metrics
+     */
+    public static void install(SectionMetrics metrics) {
+        checkArgument(metrics != null, "metrics can't be null");
+        SectionInstrumentation.metrics = metrics;
+    }
+
+    /**
+     * 卸载回调
+     */
+    public static void uninstall() {
+        metrics = null;
+    }
+
+    /**
+     * 当前安装的回调，未安装返回null
+     *
+     * @return
+     */
+    public static SectionMetrics current() {
+        return metrics;
+    }
+
+    /**
+     * 开始计时，未安装回调时不读时钟
+     *
+     * @param metrics
+     * @return
+     */
+    static long start(SectionMetrics metrics) {
+        return metrics == null ? 0L : System.nanoTime();
+    }
+}
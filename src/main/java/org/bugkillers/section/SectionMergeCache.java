@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * merge结果缓存（线程安全）
+ * <p/>
+ * 以输入区间的内容指纹（端点、数据引用、比较器引用）为key缓存merge结果，相同输入的merge只需一次哈希查找。
+ * 数据按引用比较：内容相同但不是同一对象的数据视为不同输入（只会导致未命中，不会返回错误结果），
+ * 配合{@link SectionDictionary}规范化数据可提高命中率。
+ * <p/>
+ * 缓存按区间个数限制大小（每个条目计入key中的输入区间个数和结果区间个数），淘汰策略为近似LRU，
+ * 由大输入构造的单个条目不会占用超出上限的内存。缓存的结果不会被修改，每次返回副本。
+ */
+public final class SectionMergeCache<T> {
+
+    /**
+     * merge API 种类，作为key的一部分
+     */
+    private static final int LISTS = 0;
+    private static final int LIST_AND_SECTION = 1;
+    private static final int SECTION_AND_LIST = 2;
+
+    /**
+     * 缓存
+     */
+    private final Cache<Fingerprint, List<Section<T>>> cache;
+
+    /**
+     * 构造缓存
+     *
+     * @param maximumSections 缓存的输入区间和结果区间总个数的上限
+     * @param <T>
+     * @return
+     */
+    public static <T> SectionMergeCache<T> create(long maximumSections) {
+        checkArgument(maximumSections > 0, "maximumSections must be positive");
+        return new SectionMergeCache<>(maximumSections);
+    }
+
+    /**
+     * 同{@link Section#merge(List, List)}
+     *
+     * @param source
+     * @param target
+     * @return
+     */
+    public List<Section<T>> merge(List<Section<T>> source, List<Section<T>> target) {
+        return merge(source, target, true);
+    }
+
+    /**
+     * 同{@link Section#merge(List, List, boolean)}
+     *
+     * @param source
+     * @param target
+     * @param mergeSelf
+     * @return
+     */
+    public List<Section<T>> merge(List<Section<T>> source, List<Section<T>> target, boolean mergeSelf) {
+
+        if (CollectionUtils.isEmpty(source) || CollectionUtils.isEmpty(target)) {
+            return Section.merge(source, target, mergeSelf);
+        }
+
+        Fingerprint key = Fingerprint.of(LISTS, mergeSelf, source, target);
+        List<Section<T>> result = cache.getIfPresent(key);
+        if (result == null) {
+            result = Section.merge(source, target, mergeSelf);
+            cache.put(key, Collections.unmodifiableList(Lists.newArrayList(result)));
+            return result;
+        }
+        return Lists.newArrayList(result);
+    }
+
+    /**
+     * 同{@link Section#merge(List, Section, boolean)}
+     *
+     * @param source
+     * @param target
+     * @param mergeSelf
+     * @return
+     */
+    public List<Section<T>> merge(List<Section<T>> source, Section<T> target, boolean mergeSelf) {
+
+        if (CollectionUtils.isEmpty(source) || target == null) {
+            return Section.merge(source, target, mergeSelf);
+        }
+
+        Fingerprint key = Fingerprint.of(LIST_AND_SECTION, mergeSelf, source,
+                Collections.singletonList(target));
+        List<Section<T>> result = cache.getIfPresent(key);
+        if (result == null) {
+            result = Section.merge(source, target, mergeSelf);
+            cache.put(key, Collections.unmodifiableList(Lists.newArrayList(result)));
+            return result;
+        }
+        return Lists.newArrayList(result);
+    }
+
+    /**
+     * 同{@link Section#merge(Section, List, boolean)}
+     *
+     * @param source
+     * @param target
+     * @param mergeSelf
+     * @return
+     */
+    public List<Section<T>> merge(Section<T> source, List<Section<T>> target, boolean mergeSelf) {
+
+        if (source == null || CollectionUtils.isEmpty(target)) {
+            return Section.merge(source, target, mergeSelf);
+        }
+
+        Fingerprint key = Fingerprint.of(SECTION_AND_LIST, mergeSelf, Collections.singletonList(source),
+                target);
+        List<Section<T>> result = cache.getIfPresent(key);
+        if (result == null) {
+            result = Section.merge(source, target, mergeSelf);
+            cache.put(key, Collections.unmodifiableList(Lists.newArrayList(result)));
+            return result;
+        }
+        return Lists.newArrayList(result);
+    }
+
+    /**
+     * 命中率等统计
+     *
+     * @return
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 缓存的结果个数（近似值）
+     *
+     * @return
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private SectionMergeCache(long maximumSections) {
+        this.cache = CacheBuilder.newBuilder().maximumWeight(maximumSections)
+                .weigher(new Weigher<Fingerprint, List<Section<T>>>() {
+                    @Override
+                    public int weigh(Fingerprint key, List<Section<T>> value) {
+                        return key.size() + value.size();
+                    }
+                }).recordStats().build();
+    }
+
+    /**
+     * 输入区间的内容指纹
+     * <p/>
+     * 保存端点的副本和数据、比较器的引用，哈希冲突时逐个比较，调用方之后修改输入的List不影响缓存。
+     */
+    private static final class Fingerprint {
+
+        /**
+         * merge API 种类
+         */
+        private final int kind;
+
+        /**
+         * 是否自己跟自己merge
+         */
+        private final boolean mergeSelf;
+
+        /**
+         * source区间个数，之后为target区间
+         */
+        private final int lowerSize;
+
+        /**
+         * 左端点、右端点交替存放
+         */
+        private final int[] points;
+
+        /**
+         * 数据、比较器交替存放
+         */
+        private final Object[] references;
+
+        private final int hash;
+
+        static Fingerprint of(int kind, boolean mergeSelf, List<? extends Section<?>> lower,
+                              List<? extends Section<?>> upper) {
+
+            int size = lower.size() + upper.size();
+            int[] points = new int[2 * size];
+            Object[] references = new Object[2 * size];
+
+            long hash = (2 * kind + (mergeSelf ? 1 : 0)) * 0x9E3779B97F4A7C15L + lower.size();
+            for (int i = 0; i < size; i++) {
+                Section<?> section = i < lower.size() ? lower.get(i) : upper.get(i - lower.size());
+                checkArgument(section != null, "section can't be null");
+
+                points[2 * i] = section.getLowerPoint();
+                points[2 * i + 1] = section.getUpperPoint();
+                references[2 * i] = section.getData();
+                references[2 * i + 1] = section.getComparator();
+
+                hash = mix(hash, (long) points[2 * i] << 32 | points[2 * i + 1] & 0xFFFFFFFFL);
+                hash = mix(hash, System.identityHashCode(references[2 * i]));
+            }
+
+            return new Fingerprint(kind, mergeSelf, lower.size(), points, references, (int) (hash ^ hash >>> 32));
+        }
+
+        /**
+         * 输入区间个数
+         */
+        int size() {
+            return points.length / 2;
+        }
+
+        private static long mix(long hash, long value) {
+            long h = (hash ^ value) * 0xC2B2AE3D27D4EB4FL;
+            return h ^ h >>> 29;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Fingerprint)) {
+                return false;
+            }
+
+            Fingerprint other = (Fingerprint) o;
+            if (hash != other.hash || kind != other.kind || mergeSelf != other.mergeSelf || lowerSize != other.lowerSize
+                    || !Arrays.equals(points, other.points) || references.length != other.references.length) {
+                return false;
+            }
+
+            for (int i = 0; i < references.length; i++) {
+                if (references[i] != other.references[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        private Fingerprint(int kind, boolean mergeSelf, int lowerSize, int[] points, Object[] references,
+                            int hash) {
+            this.kind = kind;
+            this.mergeSelf = mergeSelf;
+            this.lowerSize = lowerSize;
+            this.points = points;
+            this.references = references;
+            this.hash = hash;
+        }
+    }
+}
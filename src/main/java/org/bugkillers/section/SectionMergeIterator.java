@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 流式多路merge
+ * <p/>
+ * 输入为多个按左端点排序且区间不重复的Section迭代器（第一个为base，后面的依次覆盖前面的），
+ * 边读边输出merge、合并后的区间。只缓存每路当前的一个区间，内存与输入路数成正比，与区间个数无关。
+ */
+public final class SectionMergeIterator<T> extends AbstractIterator<Section<T>> {
+
+    /**
+     * 同时遍历所有输入
+     */
+    private final SectionWalker<T> walker;
+
+    /**
+     * 输入路数
+     */
+    private final int count;
+
+    /**
+     * 待输出的区间
+     */
+    private Section<T> run;
+    private int runSectionStart;
+    private int runSectionEnd;
+    private int runStart;
+    private int runEnd;
+
+    /**
+     * 用overrides依次覆盖base
+     *
+     * @param base
+     * @param overrides
+     * @param <T>
+     * @return
+     */
+    @SafeVarargs
+    public static <T> SectionMergeIterator<T> of(Iterator<Section<T>> base, Iterator<Section<T>>... overrides) {
+        List<Iterator<Section<T>>> sources = Lists.newArrayList();
+        sources.add(base);
+        for (Iterator<Section<T>> override : overrides) {
+            sources.add(override);
+        }
+        return of(sources);
+    }
+
+    /**
+     * 多路merge，后面的输入覆盖前面的输入
+     *
+     * @param sources
+     * @param <T>
+     * @return
+     */
+    public static <T> SectionMergeIterator<T> of(List<Iterator<Section<T>>> sources) {
+
+        checkArgument(CollectionUtils.isNotEmpty(sources), "sources can't be empty");
+        for (Iterator<Section<T>> source : sources) {
+            checkArgument(source != null, "source can't be null");
+        }
+
+        return new SectionMergeIterator<>(sources);
+    }
+
+    @Override
+    protected Section<T> computeNext() {
+
+        while (walker.next()) {
+
+            //覆盖当前范围、优先级最高的一路
+            int top = count - 1;
+            while (walker.section(top) == null) {
+                top--;
+            }
+
+            Section<T> section = walker.section(top);
+            int start = walker.start();
+            int end = walker.end();
+
+            if (run != null && runEnd + 1 == start && (run == section || run.isSameData(section))) {
+                runEnd = end;
+                continue;
+            }
+
+            Section<T> result = flush(section, walker.sectionStart(top), walker.sectionEnd(top), start, end);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        if (run == null) {
+            return endOfData();
+        }
+        return flush(null, 0, 0, 0, 0);
+    }
+
+    /**
+     * 输出当前待输出的区间，并以新的区间替换
+     */
+    private Section<T> flush(Section<T> section, int sectionStart, int sectionEnd, int start, int end) {
+
+        Section<T> result = run == null ? null
+                : SectionMerger.emit(run, runSectionStart, runSectionEnd, runStart, runEnd);
+
+        run = section;
+        runSectionStart = sectionStart;
+        runSectionEnd = sectionEnd;
+        runStart = start;
+        runEnd = end;
+
+        return result;
+    }
+
+    private SectionMergeIterator(List<Iterator<Section<T>>> sources) {
+        this.walker = SectionWalker.of(sources);
+        this.count = sources.size();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.bugkillers.section.SectionUtil.toEpochDay;
+
+/**
+ * Section 合并引擎（内部使用）
+ * <p/>
+ * 端点换成epoch day后由{@link SectionSweep}扫描线合并，复杂度 O((n+m)log(n+m))，无递归。
+ * <p/>
+ * 语义与逐个merge一致：后出现的区间覆盖先出现的区间（source在前，target在后，各自按list顺序），
+ * 数据相同且相交或相连的区间合并为一个。
+ */
+final class SectionMerger {
+
+    private SectionMerger() {
+
+    }
+
+    /**
+     * 用upper覆盖lower，返回按左端点排序、合并后的区间
+     *
+     * @param lower
+     * @param upper
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    static <T> List<Section<T>> merge(List<Section<T>> lower, List<Section<T>> upper) {
+
+        SectionMetrics metrics = SectionInstrumentation.current();
+        long begin = SectionInstrumentation.start(metrics);
+
+        int lowerSize = lower.size();
+        int size = lowerSize + upper.size();
+
+        final Section<T>[] sections = (Section<T>[]) new Section<?>[size];
+        final long[] starts = new long[size];
+        final long[] ends = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            Section<T> section = i < lowerSize ? lower.get(i) : upper.get(i - lowerSize);
+            sections[i] = section;
+            starts[i] = toEpochDay(section.getLowerPoint());
+            ends[i] = toEpochDay(section.getUpperPoint());
+        }
+
+        final List<Section<T>> result = new ArrayList<>();
+
+        //端点为epoch day，相邻两天相差1
+        SectionSweep sweep = new SectionSweep(LongSectionDomain.UNIT) {
+            @Override
+            boolean isSameData(int i, int j) {
+                if (sections[i].comparesData(sections[j])) {
+                    compared();
+                }
+                return sections[i].isSameData(sections[j]);
+            }
+
+            @Override
+            void emit(int index, long start, long end) {
+                result.add(SectionMerger.emit(sections[index], (int) starts[index], (int) ends[index], (int) start,
+                        (int) end));
+            }
+        };
+        sweep.sweep(starts, ends);
+
+        if (metrics != null) {
+            metrics.onMerge(size, result.size(), sweep.maxDepth(), sweep.comparisons(), System.nanoTime() - begin);
+        }
+
+        return result;
+    }
+
+    /**
+     * 输出区间，端点未变化时复用原对象
+     */
+    static <T> Section<T> emit(Section<T> section, int sectionStart, int sectionEnd, int start, int end) {
+        if (sectionStart == start && sectionEnd == end) {
+            return section;
+        }
+        return Section.buildCanonical(fromEpochDay(start), fromEpochDay(end), section.getData(),
+                section.getComparator());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+/**
+ * merge、hit 热点路径的监控回调
+ * <p/>
+ * 通过{@link SectionInstrumentation#install(SectionMetrics)}安装，未安装时热点路径只多一次volatile读。
+ * 回调在业务线程中同步执行，实现需线程安全且足够轻量，默认实现见{@link SectionStats}。
+ */
+public interface SectionMetrics {
+
+    /**
+     * 两个Section merge 的情形，对应{@link Section#merge(Section, Section)}中的case
+     * <p/>
+     * 集合merge走扫描线，不逐对拆分区间，没有对应的情形
+     */
+    enum MergeCase {
+
+        /**
+         * 相连且数据相同，连接为一个
+         */
+        CONNECTED,
+
+        /**
+         * case 0：没有交集
+         */
+        DISJOINT,
+
+        /**
+         * case 99：端点相同
+         */
+        IDENTICAL,
+
+        /**
+         * case 1：target和source相交（target在右）
+         */
+        OVERLAP_RIGHT,
+
+        /**
+         * case 2：target在source之中
+         */
+        CONTAINED,
+
+        /**
+         * case 3：target和source相交（target在左）
+         */
+        OVERLAP_LEFT,
+
+        /**
+         * case 4：target完全覆盖了source
+         */
+        COVERED
+    }
+
+    /**
+     * 一次集合merge
+     *
+     * @param sectionsIn  输入区间个数
+     * @param sectionsOut 输出区间个数
+     * @param maxDepth    扫描中同时打开的最多区间个数（同一天叠加区间个数的上界）
+     * @param comparisons 比较器调用次数（数据引用相同或在同一字典下时不调用比较器）
+     * @param nanos       耗时（纳秒）
+     */
+    void onMerge(int sectionsIn, int sectionsOut, int maxDepth, int comparisons, long nanos);
+
+    /**
+     * 一次两个Section的merge
+     * <p/>
+     * 只由{@link Section#merge(Section, Section)}触发；集合merge（包括merge(List, Section)等重载）
+     * 走扫描线，只触发{@link #onMerge}
+     *
+     * @param mergeCase
+     * @param sectionsOut 拆分后的区间个数
+     */
+    void onSplit(MergeCase mergeCase, int sectionsOut);
+
+    /**
+     * 一次hit
+     *
+     * @param scanned 检查过的区间个数
+     * @param nanos   耗时（纳秒）
+     */
+    void onHit(int scanned, long nanos);
+}
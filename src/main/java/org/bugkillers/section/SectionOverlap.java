@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+/**
+ * 一对重复的区间及其重复的日期范围
+ */
+public final class SectionOverlap<T> {
+
+    /**
+     * 左端点较小的区间
+     */
+    private final Section<T> first;
+
+    /**
+     * 左端点较大的区间
+     */
+    private final Section<T> second;
+
+    /**
+     * 重复部分左端点
+     */
+    private final int lowerPoint;
+
+    /**
+     * 重复部分右端点
+     */
+    private final int upperPoint;
+
+    SectionOverlap(Section<T> first, Section<T> second) {
+        this.first = first;
+        this.second = second;
+        this.lowerPoint = second.getLowerPoint();
+        this.upperPoint = Math.min(first.getUpperPoint(), second.getUpperPoint());
+    }
+
+    public Section<T> getFirst() {
+        return first;
+    }
+
+    public Section<T> getSecond() {
+        return second;
+    }
+
+    public int getLowerPoint() {
+        return lowerPoint;
+    }
+
+    public int getUpperPoint() {
+        return upperPoint;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + first.getLowerPoint() + "," + first.getUpperPoint() + "] x [" + second.getLowerPoint() + ","
+                + second.getUpperPoint() + "] -> [" + lowerPoint + "," + upperPoint + "]";
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionUtil.LOWER_POINT_ORDER;
+
+/**
+ * 区间重复检测
+ * <p/>
+ * 按左端点排序（O(n log n)，无递归）后，与第i个区间重复的区间是其后左端点不超过其右端点的连续一段，
+ * 二分定位，总复杂度 O(n log n + k)，k为重复的区间对数。
+ */
+public final class SectionOverlaps {
+
+    /**
+     * 并行检测时每个子任务最多处理的区间个数
+     */
+    private static final int BATCH_SIZE = 4096;
+
+    private SectionOverlaps() {
+
+    }
+
+    /**
+     * 是否存在重复的区间
+     *
+     * @param sections
+     * @return
+     */
+    @SuppressWarnings("rawtypes")
+    public static boolean hasOverlap(List<? extends Section> sections) {
+        checkArgument(CollectionUtils.isNotEmpty(sections), "sections can't be empty");
+        Section<?>[] sorted = sort(sections, false);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1].getUpperPoint() >= sorted[i].getLowerPoint()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 第一对重复的区间（按左端点顺序），不存在返回null
+     *
+     * @param sections
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> SectionOverlap<T> findFirst(List<Section<T>> sections) {
+        checkArgument(CollectionUtils.isNotEmpty(sections), "sections can't be empty");
+        Section<T>[] sorted = (Section<T>[]) sort(sections, false);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1].getUpperPoint() >= sorted[i].getLowerPoint()) {
+                return new SectionOverlap<>(sorted[i - 1], sorted[i]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 所有重复的区间对（按左端点顺序）
+     *
+     * @param sections
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<SectionOverlap<T>> findAll(List<Section<T>> sections) {
+        checkArgument(CollectionUtils.isNotEmpty(sections), "sections can't be empty");
+        Section<T>[] sorted = (Section<T>[]) sort(sections, false);
+        List<SectionOverlap<T>> overlaps = Lists.newArrayList();
+        collect(sorted, lowerPoints(sorted), 0, sorted.length, overlaps);
+        return overlaps;
+    }
+
+    /**
+     * 并行检测所有重复的区间对（按左端点顺序），适用于大批量校验
+     *
+     * @param sections
+     * @param pool
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<SectionOverlap<T>> findAll(List<Section<T>> sections, ForkJoinPool pool) {
+        checkArgument(CollectionUtils.isNotEmpty(sections), "sections can't be empty");
+        checkArgument(pool != null, "pool can't be null");
+        Section<T>[] sorted = (Section<T>[]) sort(sections, true);
+        return pool.invoke(new FindTask<>(sorted, lowerPoints(sorted), 0, sorted.length));
+    }
+
+    /**
+     * 按左端点排序的区间（已排序时不复制），重复时抛出IllegalArgumentException
+     *
+     * @param source
+     * @param <T>
+     * @return
+     */
+    static <T> List<Section<T>> sortedDisjoint(List<Section<T>> source) {
+
+        for (Section<T> section : source) {
+            checkArgument(section != null, "section can't be null");
+        }
+
+        List<Section<T>> sections = source;
+        for (int i = 1; i < sections.size(); i++) {
+            if (sections.get(i - 1).getLowerPoint() > sections.get(i).getLowerPoint()) {
+                sections = Lists.newArrayList(source);
+                Collections.sort(sections, LOWER_POINT_ORDER);
+                break;
+            }
+        }
+
+        for (int i = 1; i < sections.size(); i++) {
+            Section<T> previous = sections.get(i - 1);
+            Section<T> current = sections.get(i);
+            checkArgument(previous.getUpperPoint() < current.getLowerPoint(),
+                    "sections must not be repeated, now is %s-%s and %s-%s", previous.getLowerPoint(),
+                    previous.getUpperPoint(), current.getLowerPoint(), current.getUpperPoint());
+        }
+
+        return sections;
+    }
+
+    /**
+     * 收集[from, to)中每个区间与其后区间的重复
+     */
+    private static <T> void collect(Section<T>[] sorted, int[] lowerPoints, int from, int to,
+                                    List<SectionOverlap<T>> overlaps) {
+        for (int i = from; i < to; i++) {
+            int upper = upperBound(lowerPoints, i + 1, sorted[i].getUpperPoint());
+            for (int j = i + 1; j < upper; j++) {
+                overlaps.add(new SectionOverlap<>(sorted[i], sorted[j]));
+            }
+        }
+    }
+
+    /**
+     * [from, length)中第一个大于key的下标
+     */
+    private static int upperBound(int[] array, int from, int key) {
+        int low = from;
+        int high = array.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int[] lowerPoints(Section<?>[] sorted) {
+        int[] lowerPoints = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            lowerPoints[i] = sorted[i].getLowerPoint();
+        }
+        return lowerPoints;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Section<?>[] sort(List<? extends Section> sections, boolean parallel) {
+        Section<?>[] sorted = sections.toArray(new Section<?>[sections.size()]);
+        if (parallel) {
+            Arrays.parallelSort(sorted, LOWER_POINT_ORDER);
+        } else {
+            Arrays.sort(sorted, LOWER_POINT_ORDER);
+        }
+        return sorted;
+    }
+
+    /**
+     * 分治任务
+     */
+    private static final class FindTask<T> extends RecursiveTask<List<SectionOverlap<T>>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Section<T>[] sorted;
+        private final int[] lowerPoints;
+        private final int from;
+        private final int to;
+
+        private FindTask(Section<T>[] sorted, int[] lowerPoints, int from, int to) {
+            this.sorted = sorted;
+            this.lowerPoints = lowerPoints;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<SectionOverlap<T>> compute() {
+
+            if (to - from <= BATCH_SIZE) {
+                List<SectionOverlap<T>> overlaps = Lists.newArrayList();
+                collect(sorted, lowerPoints, from, to, overlaps);
+                return overlaps;
+            }
+
+            int middle = (from + to) >>> 1;
+            FindTask<T> left = new FindTask<>(sorted, lowerPoints, from, middle);
+            left.fork();
+            List<SectionOverlap<T>> overlaps = new FindTask<>(sorted, lowerPoints, middle, to).compute();
+            List<SectionOverlap<T>> result = left.join();
+            result.addAll(overlaps);
+            return result;
+        }
+    }
+}
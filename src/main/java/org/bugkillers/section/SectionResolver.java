@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+/**
+ * 两个时间线在同一天上都有数据时，决定结果数据（由使用方实现）
+ */
+public interface SectionResolver<T> {
+
+    /**
+     * 决定结果数据
+     *
+     * @param left  左边时间线的数据
+     * @param right 右边时间线的数据
+     * @return 结果数据，返回null表示这段日期不出现在结果中
+     */
+    T resolve(T left, T right);
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionUtil.floor;
+import static org.bugkillers.section.SectionTimeline.isTouched;
+import static org.bugkillers.section.SectionTimeline.splice;
+
+/**
+ * 区间时间线的不可变快照
+ * <p/>
+ * 合并后的区间按左端点排序，分块存放。apply只复制受影响的块和块索引，其余块与旧快照共享。
+ */
+public final class SectionSnapshot<T> {
+
+    /**
+     * 每块最多存放的区间个数
+     */
+    static final int CHUNK_SIZE = 64;
+
+    @SuppressWarnings("unchecked")
+    private static final SectionSnapshot<Object> EMPTY = new SectionSnapshot<>((Chunk<Object>[]) new Chunk<?>[0],
+            new int[0], 0, 0L);
+
+    /**
+     * 数据块（按左端点排序）
+     */
+    private final Chunk<T>[] chunks;
+
+    /**
+     * 每块第一个区间的左端点
+     */
+    private final int[] chunkStarts;
+
+    /**
+     * 区间个数
+     */
+    private final int size;
+
+    /**
+     * 版本号，每次apply加1
+     */
+    private final long version;
+
+    /**
+     * 空快照
+     *
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> SectionSnapshot<T> empty() {
+        return (SectionSnapshot<T>) EMPTY;
+    }
+
+    /**
+     * 由Section集合构造快照（先自己跟自己merge）
+     *
+     * @param source
+     * @param <T>
+     * @return
+     */
+    public static <T> SectionSnapshot<T> of(List<Section<T>> source) {
+
+        checkArgument(CollectionUtils.isNotEmpty(source), "source can't be empty");
+
+        SectionSnapshot<T> snapshot = empty();
+        return snapshot.replace(0, 0, Section.merge((Section<T>) null, source, true), 0L);
+    }
+
+    /**
+     * 根据日期命中一条数据，不存在返回null
+     *
+     * @param date
+     * @return
+     */
+    public T hit(int date) {
+        int c = floor(chunkStarts, chunkStarts.length, date);
+        if (c < 0) {
+            return null;
+        }
+        Chunk<T> chunk = chunks[c];
+        int i = floor(chunk.starts, chunk.starts.length, date);
+        return date <= chunk.ends[i] ? chunk.sections[i].getData() : null;
+    }
+
+    /**
+     * 区间个数
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 版本号
+     *
+     * @return
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * 导出为Section集合（按左端点排序）
+     *
+     * @return
+     */
+    public List<Section<T>> toList() {
+        List<Section<T>> list = Lists.newArrayListWithCapacity(size);
+        for (Chunk<T> chunk : chunks) {
+            Collections.addAll(list, chunk.sections);
+        }
+        return list;
+    }
+
+    /**
+     * 用target覆盖当前快照，返回新快照（当前快照不变）
+     *
+     * @param target
+     * @return
+     */
+    SectionSnapshot<T> apply(Section<T> target) {
+
+        int lowerPoint = target.getLowerPoint();
+
+        //第一个可能受影响的位置
+        int firstChunk = 0;
+        int firstIndex = 0;
+        int c = floor(chunkStarts, chunkStarts.length, lowerPoint - 1);
+        if (c >= 0) {
+            Chunk<T> chunk = chunks[c];
+            int i = floor(chunk.starts, chunk.starts.length, lowerPoint - 1);
+            firstChunk = c;
+            firstIndex = isTouched(chunk.sections[i], target) ? i : i + 1;
+        }
+
+        //收集与target相交或相连的区间
+        List<Section<T>> touched = Lists.newArrayList();
+        int lastChunk = firstChunk;
+        int endIndex = firstIndex;
+        for (int ci = firstChunk, i = firstIndex; ci < chunks.length; ) {
+            if (i >= chunks[ci].sections.length) {
+                ci++;
+                i = 0;
+                continue;
+            }
+            Section<T> section = chunks[ci].sections[i];
+            if (!isTouched(section, target)) {
+                break;
+            }
+            touched.add(section);
+            lastChunk = ci;
+            endIndex = ++i;
+        }
+
+        return replace(firstChunk, firstIndex, lastChunk, endIndex, splice(touched, target));
+    }
+
+    /**
+     * 用sections替换[firstChunk.firstIndex, lastChunk.endIndex)之间的区间
+     */
+    private SectionSnapshot<T> replace(int firstChunk, int firstIndex, int lastChunk, int endIndex,
+                                       List<Section<T>> sections) {
+
+        List<Section<T>> items = Lists.newArrayList();
+
+        if (firstChunk < chunks.length) {
+            Section<T>[] first = chunks[firstChunk].sections;
+            for (int i = 0; i < firstIndex; i++) {
+                items.add(first[i]);
+            }
+        }
+
+        items.addAll(sections);
+
+        if (lastChunk < chunks.length) {
+            Section<T>[] last = chunks[lastChunk].sections;
+            for (int i = endIndex; i < last.length; i++) {
+                items.add(last[i]);
+            }
+        }
+
+        //受影响的块过小时，合并后面一块，避免块越来越碎
+        if (items.size() < CHUNK_SIZE / 2 && lastChunk + 1 < chunks.length) {
+            lastChunk++;
+            Collections.addAll(items, chunks[lastChunk].sections);
+        }
+
+        return replace(firstChunk, lastChunk, items, version + 1);
+    }
+
+    /**
+     * 用items重新分块，替换[firstChunk, lastChunk]之间的块，其余块共享
+     */
+    @SuppressWarnings("unchecked")
+    private SectionSnapshot<T> replace(int firstChunk, int lastChunk, List<Section<T>> items, long version) {
+
+        int removed = chunks.length == 0 ? 0 : lastChunk - firstChunk + 1;
+        int pieces = (items.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int length = chunks.length - removed + pieces;
+
+        Chunk<T>[] newChunks = (Chunk<T>[]) new Chunk<?>[length];
+        int[] newChunkStarts = new int[length];
+
+        System.arraycopy(chunks, 0, newChunks, 0, firstChunk);
+        System.arraycopy(chunkStarts, 0, newChunkStarts, 0, firstChunk);
+
+        int from = 0;
+        for (int p = 0; p < pieces; p++) {
+            int to = (int) ((long) items.size() * (p + 1) / pieces);
+            Chunk<T> chunk = new Chunk<>(items.subList(from, to));
+            newChunks[firstChunk + p] = chunk;
+            newChunkStarts[firstChunk + p] = chunk.starts[0];
+            from = to;
+        }
+
+        int tail = chunks.length - firstChunk - removed;
+        System.arraycopy(chunks, firstChunk + removed, newChunks, firstChunk + pieces, tail);
+        System.arraycopy(chunkStarts, firstChunk + removed, newChunkStarts, firstChunk + pieces, tail);
+
+        return new SectionSnapshot<>(newChunks, newChunkStarts, size - countOf(firstChunk, removed) + items.size(),
+                version);
+    }
+
+    private int countOf(int firstChunk, int count) {
+        int total = 0;
+        for (int i = firstChunk; i < firstChunk + count; i++) {
+            total += chunks[i].sections.length;
+        }
+        return total;
+    }
+
+    private SectionSnapshot(Chunk<T>[] chunks, int[] chunkStarts, int size, long version) {
+        this.chunks = chunks;
+        this.chunkStarts = chunkStarts;
+        this.size = size;
+        this.version = version;
+    }
+
+    /**
+     * 数据块（不可变）
+     */
+    private static final class Chunk<T> {
+
+        private final int[] starts;
+
+        private final int[] ends;
+
+        private final Section<T>[] sections;
+
+        @SuppressWarnings("unchecked")
+        private Chunk(List<Section<T>> items) {
+            this.sections = (Section<T>[]) items.toArray(new Section<?>[items.size()]);
+            this.starts = new int[sections.length];
+            this.ends = new int[sections.length];
+            for (int i = 0; i < sections.length; i++) {
+                starts[i] = sections[i].getLowerPoint();
+                ends[i] = sections[i].getUpperPoint();
+            }
+        }
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 基于LongAdder的监控统计（线程安全）
+ * <p/>
+ * 计数和耗时直方图都可以随时读取，{@link #toMap()}按名称导出，便于接入外部监控。
+ */
+public final class SectionStats implements SectionMetrics {
+
+    /**
+     * 取最大值
+     */
+    private static final LongBinaryOperator MAX = new LongBinaryOperator() {
+        @Override
+        public long applyAsLong(long left, long right) {
+            return Math.max(left, right);
+        }
+    };
+
+    private final LongAdder merges = new LongAdder();
+    private final LongAdder sectionsIn = new LongAdder();
+    private final LongAdder sectionsOut = new LongAdder();
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(MAX, 0L);
+    private final LongAdder[] splits = adders(MergeCase.values().length);
+    private final LongAdder[] splitSections = adders(MergeCase.values().length);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder hitScanned = new LongAdder();
+    private final LongAccumulator maxHitScanned = new LongAccumulator(MAX, 0L);
+    private final Histogram mergeLatency = new Histogram();
+    private final Histogram hitLatency = new Histogram();
+
+    /**
+     * 构造统计
+     *
+     * @return
+     */
+    public static SectionStats create() {
+        return new SectionStats();
+    }
+
+    @Override
+    public void onMerge(int sectionsIn, int sectionsOut, int maxDepth, int comparisons, long nanos) {
+        this.merges.increment();
+        this.sectionsIn.add(sectionsIn);
+        this.sectionsOut.add(sectionsOut);
+        this.comparisons.add(comparisons);
+        this.maxDepth.accumulate(maxDepth);
+        this.mergeLatency.record(nanos);
+    }
+
+    @Override
+    public void onSplit(MergeCase mergeCase, int sectionsOut) {
+        splits[mergeCase.ordinal()].increment();
+        splitSections[mergeCase.ordinal()].add(sectionsOut);
+    }
+
+    @Override
+    public void onHit(int scanned, long nanos) {
+        hits.increment();
+        hitScanned.add(scanned);
+        maxHitScanned.accumulate(scanned);
+        hitLatency.record(nanos);
+    }
+
+    /**
+     * 集合merge次数
+     *
+     * @return
+     */
+    public long merges() {
+        return merges.sum();
+    }
+
+    /**
+     * 集合merge输入的区间总数
+     *
+     * @return
+     */
+    public long sectionsIn() {
+        return sectionsIn.sum();
+    }
+
+    /**
+     * 集合merge输出的区间总数
+     *
+     * @return
+     */
+    public long sectionsOut() {
+        return sectionsOut.sum();
+    }
+
+    /**
+     * 集合merge调用比较器的总次数
+     *
+     * @return
+     */
+    public long comparisons() {
+        return comparisons.sum();
+    }
+
+    /**
+     * 扫描中同时打开的最多区间个数
+     *
+     * @return
+     */
+    public long maxDepth() {
+        return maxDepth.get();
+    }
+
+    /**
+     * 某种情形的两个Section merge次数（只统计{@link Section#merge(Section, Section)}）
+     *
+     * @param mergeCase
+     * @return
+     */
+    public long splits(MergeCase mergeCase) {
+        checkArgument(mergeCase != null, "mergeCase can't be null");
+        return splits[mergeCase.ordinal()].sum();
+    }
+
+    /**
+     * 某种情形拆分出的区间总数
+     *
+     * @param mergeCase
+     * @return
+     */
+    public long splitSections(MergeCase mergeCase) {
+        checkArgument(mergeCase != null, "mergeCase can't be null");
+        return splitSections[mergeCase.ordinal()].sum();
+    }
+
+    /**
+     * hit次数
+     *
+     * @return
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * hit检查过的区间总数
+     *
+     * @return
+     */
+    public long hitScanned() {
+        return hitScanned.sum();
+    }
+
+    /**
+     * 单次hit检查过的最多区间个数
+     *
+     * @return
+     */
+    public long maxHitScanned() {
+        return maxHitScanned.get();
+    }
+
+    /**
+     * 集合merge耗时
+     *
+     * @return
+     */
+    public Histogram mergeLatency() {
+        return mergeLatency;
+    }
+
+    /**
+     * hit耗时
+     *
+     * @return
+     */
+    public Histogram hitLatency() {
+        return hitLatency;
+    }
+
+    /**
+     * 清零
+     */
+    public void reset() {
+        merges.reset();
+        sectionsIn.reset();
+        sectionsOut.reset();
+        comparisons.reset();
+        maxDepth.reset();
+        for (int i = 0; i < splits.length; i++) {
+            splits[i].reset();
+            splitSections[i].reset();
+        }
+        hits.reset();
+        hitScanned.reset();
+        maxHitScanned.reset();
+        mergeLatency.reset();
+        hitLatency.reset();
+    }
+
+    /**
+     * 按名称导出当前值，耗时单位为纳秒
+     *
+     * @return
+     */
+    public Map<String, Long> toMap() {
+        ImmutableMap.Builder<String, Long> builder = ImmutableMap.builder();
+        builder.put("merge.count", merges());
+        builder.put("merge.sections.in", sectionsIn());
+        builder.put("merge.sections.out", sectionsOut());
+        builder.put("merge.comparisons", comparisons());
+        builder.put("merge.depth.max", maxDepth());
+        for (MergeCase mergeCase : MergeCase.values()) {
+            String name = mergeCase.name().toLowerCase();
+            builder.put("split." + name + ".count", splits(mergeCase));
+            builder.put("split." + name + ".sections", splitSections(mergeCase));
+        }
+        builder.put("hit.count", hits());
+        builder.put("hit.scanned", hitScanned());
+        builder.put("hit.scanned.max", maxHitScanned());
+        mergeLatency.export("merge.latency", builder);
+        hitLatency.export("hit.latency", builder);
+        return builder.build();
+    }
+
+    private static LongAdder[] adders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private SectionStats() {
+
+    }
+
+    /**
+     * 耗时直方图（线程安全）
+     * <p/>
+     * 按2的幂分桶，第i个桶记录[2^(i-1), 2^i)纳秒，分位数返回所在桶的上界，误差在2倍以内。
+     */
+    public static final class Histogram {
+
+        /**
+         * 桶个数
+         */
+        private static final int BUCKETS = 64;
+
+        private final LongAdder[] buckets = adders(BUCKETS);
+
+        private final LongAdder total = new LongAdder();
+
+        private final LongAccumulator max = new LongAccumulator(MAX, 0L);
+
+        /**
+         * 记录一次耗时
+         *
+         * @param nanos
+         */
+        public void record(long nanos) {
+            long value = Math.max(0L, nanos);
+            buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value))].increment();
+            total.add(value);
+            max.accumulate(value);
+        }
+
+        /**
+         * 记录次数
+         *
+         * @return
+         */
+        public long count() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        /**
+         * 总耗时
+         *
+         * @return
+         */
+        public long total() {
+            return total.sum();
+        }
+
+        /**
+         * 最大耗时
+         *
+         * @return
+         */
+        public long max() {
+            return max.get();
+        }
+
+        /**
+         * 分位数（上界）
+         *
+         * @param quantile (0,1]
+         * @return
+         */
+        public long percentile(double quantile) {
+
+            checkArgument(quantile > 0 && quantile <= 1, "quantile must be in (0,1], now is %s", quantile);
+
+            long[] counts = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+                count += counts[i];
+            }
+            if (count == 0) {
+                return 0L;
+            }
+
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(i == 0 ? 0L : (1L << i) - 1, max());
+                }
+            }
+            return max();
+        }
+
+        /**
+         * 清零
+         */
+        public void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            total.reset();
+            max.reset();
+        }
+
+        private void export(String prefix, ImmutableMap.Builder<String, Long> builder) {
+            builder.put(prefix + ".count", count());
+            builder.put(prefix + ".total", total());
+            builder.put(prefix + ".max", max());
+            builder.put(prefix + ".p50", percentile(0.5));
+            builder.put(prefix + ".p99", percentile(0.99));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionUtil.floor;
+
+/**
+ * 按key存放区间时间线（线程安全）
+ * <p/>
+ * 每个key的值不可变，merge时基于旧值计算新值后按key CAS替换，不同key之间互不阻塞。
+ * 只有一个区间的key直接存放Section对象，多个区间存放按左端点排序的Section数组，不额外包装List。
+ */
+public final class SectionStore<K, T> {
+
+    /**
+     * key -> Section 或 Section[]
+     */
+    private final ConcurrentMap<K, Object> values;
+
+    /**
+     * 构造空的存储
+     *
+     * @param <K>
+     * @param <T>
+     * @return
+     */
+    public static <K, T> SectionStore<K, T> create() {
+        return new SectionStore<>(16);
+    }
+
+    /**
+     * 构造空的存储
+     *
+     * @param expectedKeys 预计key的个数
+     * @param <K>
+     * @param <T>
+     * @return
+     */
+    public static <K, T> SectionStore<K, T> create(int expectedKeys) {
+        checkArgument(expectedKeys >= 0, "expectedKeys can't be negative");
+        return new SectionStore<>(expectedKeys);
+    }
+
+    /**
+     * 用target覆盖key对应的时间线
+     *
+     * @param key
+     * @param target
+     * @return merge后的区间（按左端点排序，不可修改）
+     */
+    public List<Section<T>> merge(K key, Section<T> target) {
+
+        checkArgument(target != null, "target can't be null");
+
+        return merge(key, Collections.singletonList(target));
+    }
+
+    /**
+     * 按顺序用target中的区间覆盖key对应的时间线
+     *
+     * @param key
+     * @param target
+     * @return merge后的区间（按左端点排序，不可修改）
+     */
+    public List<Section<T>> merge(K key, List<Section<T>> target) {
+
+        checkArgument(key != null, "key can't be null");
+        checkArgument(CollectionUtils.isNotEmpty(target), "target can't be empty");
+
+        while (true) {
+            Object current = values.get(key);
+
+            List<Section<T>> merged = current == null ? Section.merge((Section<T>) null, target, true)
+                    : Section.merge(toList(current), target, false);
+            Object value = compact(merged);
+
+            if (current == null ? values.putIfAbsent(key, value) == null : values.replace(key, current, value)) {
+                return toList(value);
+            }
+        }
+    }
+
+    /**
+     * 根据key和日期命中一条数据，不存在返回null
+     *
+     * @param key
+     * @param date
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public T hit(K key, int date) {
+
+        Object value = values.get(key);
+
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof Section) {
+            Section<T> section = (Section<T>) value;
+            return section.getLowerPoint() <= date && date <= section.getUpperPoint() ? section.getData() : null;
+        }
+
+        Section<T>[] sections = (Section<T>[]) value;
+        int i = floor(sections, date);
+        return i >= 0 && date <= sections[i].getUpperPoint() ? sections[i].getData() : null;
+    }
+
+    /**
+     * key对应的区间（按左端点排序，不可修改），不存在返回空集合
+     *
+     * @param key
+     * @return
+     */
+    public List<Section<T>> get(K key) {
+        Object value = values.get(key);
+        return value == null ? Collections.<Section<T>>emptyList() : this.toList(value);
+    }
+
+    /**
+     * 移除key对应的区间
+     *
+     * @param key
+     * @return 移除前的区间，不存在返回空集合
+     */
+    public List<Section<T>> remove(K key) {
+        Object value = values.remove(key);
+        return value == null ? Collections.<Section<T>>emptyList() : this.toList(value);
+    }
+
+    /**
+     * 所有key
+     *
+     * @return
+     */
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(values.keySet());
+    }
+
+    /**
+     * key的个数
+     *
+     * @return
+     */
+    public int size() {
+        return values.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Section<T>> toList(Object value) {
+        if (value instanceof Section) {
+            return Collections.singletonList((Section<T>) value);
+        }
+        return Collections.unmodifiableList(Arrays.asList((Section<T>[]) value));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Object compact(List<Section<T>> sections) {
+        if (sections.size() == 1) {
+            return sections.get(0);
+        }
+        return sections.toArray(new Section<?>[sections.size()]);
+    }
+
+    private SectionStore(int expectedKeys) {
+        this.values = new ConcurrentHashMap<>(expectedKeys);
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import java.util.Arrays;
+
+/**
+ * 扫描线合并（内部使用），{@link SectionMerger}和{@link LongSectionMerger}共用
+ * <p/>
+ * 区间端点为离散域上的long，下标即优先级：下标大的区间覆盖下标小的区间。
+ * 先按左端点排序，再用按优先级构造的大顶堆扫描，复杂度 O(n log n)，无递归。
+ * 相连且数据相同的部分合并为一段，通过{@link #emit(int, long, long)}按左端点顺序输出。
+ */
+abstract class SectionSweep {
+
+    /**
+     * 端点所在的离散域
+     */
+    private final LongSectionDomain domain;
+
+    /**
+     * 扫描中同时打开的最多区间个数（堆的最大大小，含已结束未移除的区间）
+     */
+    private int maxDepth;
+
+    /**
+     * 比较器调用次数，由{@link #isSameData(int, int)}的实现通过{@link #compared()}记录
+     */
+    private int comparisons;
+
+    SectionSweep(LongSectionDomain domain) {
+        this.domain = domain;
+    }
+
+    /**
+     * 第i个和第j个区间的数据是否相同，调用了比较器时需调用{@link #compared()}
+     *
+     * @param i
+     * @param j
+     * @return
+     */
+    abstract boolean isSameData(int i, int j);
+
+    /**
+     * 输出第index个区间的[start, end]部分
+     *
+     * @param index
+     * @param start
+     * @param end
+     */
+    abstract void emit(int index, long start, long end);
+
+    /**
+     * 扫描区间
+     *
+     * @param starts 左端点
+     * @param ends   右端点
+     */
+    final void sweep(long[] starts, long[] ends) {
+
+        int size = starts.length;
+        long[] order = order(starts);
+
+        //当前覆盖中的区间，按优先级（下标）构造的大顶堆
+        int[] heap = new int[size];
+        int heapSize = 0;
+
+        //待输出的区间
+        int runIndex = -1;
+        long runStart = 0;
+        long runEnd = 0;
+
+        int next = 0;
+        long point = 0;
+
+        while (true) {
+
+            if (heapSize == 0) {
+                if (next >= size) {
+                    break;
+                }
+                point = starts[(int) order[next]];
+            }
+
+            while (next < size && starts[(int) order[next]] <= point) {
+                heapSize = push(heap, heapSize, (int) order[next++]);
+            }
+
+            //移除已经结束的区间
+            while (heapSize > 0 && ends[heap[0]] < point) {
+                heapSize = pop(heap, heapSize);
+            }
+
+            if (heapSize == 0) {
+                continue;
+            }
+
+            int top = heap[0];
+            maxDepth = Math.max(maxDepth, heapSize);
+
+            long boundary = ends[top];
+            if (next < size && starts[(int) order[next]] <= boundary) {
+                boundary = domain.previous(starts[(int) order[next]]);
+            }
+
+            boolean continuous = runIndex >= 0 && domain.isContinuous(runEnd, point);
+
+            if (continuous && (runIndex == top || isSameData(runIndex, top))) {
+                //相连且数据相同，延长
+                runEnd = boundary;
+            } else {
+                if (runIndex >= 0) {
+                    emit(runIndex, runStart, runEnd);
+                }
+                runIndex = top;
+                runStart = point;
+                runEnd = boundary;
+            }
+
+            point = domain.next(boundary);
+        }
+
+        if (runIndex >= 0) {
+            emit(runIndex, runStart, runEnd);
+        }
+    }
+
+    /**
+     * 扫描中同时打开的最多区间个数
+     *
+     * @return
+     */
+    final int maxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * 记录一次比较器调用
+     */
+    final void compared() {
+        comparisons++;
+    }
+
+    /**
+     * 比较器调用次数
+     *
+     * @return
+     */
+    final int comparisons() {
+        return comparisons;
+    }
+
+    /**
+     * 排序后的扫描顺序：高32位为左端点（超出int范围时为左端点的排名），低32位为优先级（下标），
+     * 左端点相同时优先级低的在前
+     */
+    private static long[] order(long[] starts) {
+
+        int size = starts.length;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long start : starts) {
+            min = Math.min(min, start);
+            max = Math.max(max, start);
+        }
+
+        long[] order = new long[size];
+        if (min >= Integer.MIN_VALUE && max <= Integer.MAX_VALUE) {
+            for (int i = 0; i < size; i++) {
+                order[i] = starts[i] << 32 | i;
+            }
+        } else {
+            long[] sorted = starts.clone();
+            Arrays.sort(sorted);
+            for (int i = 0; i < size; i++) {
+                order[i] = (long) rank(sorted, starts[i]) << 32 | i;
+            }
+        }
+
+        Arrays.sort(order);
+        return order;
+    }
+
+    /**
+     * 第一个等于key的下标
+     */
+    private static int rank(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int push(int[] heap, int heapSize, int value) {
+        int i = heapSize;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] >= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+        return heapSize + 1;
+    }
+
+    private static int pop(int[] heap, int heapSize) {
+        int last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return heapSize;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionUtil.decreaseByDays;
+
+/**
+ * 可变的区间时间线（非线程安全）
+ * <p/>
+ * 以左端点为key保存合并后的区间，apply一个区间时只处理与之相交或相连的k个区间，O(log n + k)。
+ * 切分与连接规则与{@link Section#merge(Section, Section)}、{@link Section#connect(Section, Section)}一致。
+ */
+public final class SectionTimeline<T> {
+
+    /**
+     * 左端点 -> 区间
+     */
+    private final TreeMap<Integer, Section<T>> sections = new TreeMap<>();
+
+    /**
+     * 修改次数，每次apply加1
+     */
+    private int modCount;
+
+    /**
+     * 构造空的时间线
+     *
+     * @param <T>
+     * @return
+     */
+    public static <T> SectionTimeline<T> create() {
+        return new SectionTimeline<>();
+    }
+
+    /**
+     * 由Section集合构造时间线（先自己跟自己merge）
+     *
+     * @param source
+     * @param <T>
+     * @return
+     */
+    public static <T> SectionTimeline<T> of(List<Section<T>> source) {
+
+        checkArgument(CollectionUtils.isNotEmpty(source), "source can't be empty");
+
+        SectionTimeline<T> timeline = new SectionTimeline<>();
+        for (Section<T> section : Section.merge((Section<T>) null, source, true)) {
+            timeline.sections.put(section.getLowerPoint(), section);
+        }
+        return timeline;
+    }
+
+    /**
+     * 用target覆盖时间线
+     *
+     * @param target
+     */
+    public void apply(Section<T> target) {
+
+        checkArgument(target != null, "target can't be null");
+
+        List<Section<T>> touched = Lists.newArrayList();
+
+        //左侧可能与target相交或相连的区间
+        Map.Entry<Integer, Section<T>> lower = sections.lowerEntry(target.getLowerPoint());
+        if (lower != null && isTouched(lower.getValue(), target)) {
+            touched.add(lower.getValue());
+        }
+
+        Iterator<Section<T>> iterator = sections.tailMap(target.getLowerPoint(), true).values().iterator();
+        while (iterator.hasNext()) {
+            Section<T> section = iterator.next();
+            if (!isTouched(section, target)) {
+                break;
+            }
+            touched.add(section);
+        }
+
+        for (Section<T> section : touched) {
+            sections.remove(section.getLowerPoint());
+        }
+
+        for (Section<T> section : splice(touched, target)) {
+            sections.put(section.getLowerPoint(), section);
+        }
+
+        modCount++;
+    }
+
+    /**
+     * 按顺序用target中的区间覆盖时间线
+     *
+     * @param target
+     */
+    public void apply(List<Section<T>> target) {
+
+        checkArgument(CollectionUtils.isNotEmpty(target), "target can't be empty");
+
+        for (Section<T> section : target) {
+            apply(section);
+        }
+    }
+
+    /**
+     * 根据日期命中一条数据，不存在返回null
+     *
+     * @param date
+     * @return
+     */
+    public T hit(int date) {
+        Map.Entry<Integer, Section<T>> entry = sections.floorEntry(date);
+        return entry != null && date <= entry.getValue().getUpperPoint() ? entry.getValue().getData() : null;
+    }
+
+    /**
+     * 区间个数
+     *
+     * @return
+     */
+    public int size() {
+        return sections.size();
+    }
+
+    /**
+     * 第一个区间，为空时返回null
+     *
+     * @return
+     */
+    Section<T> first() {
+        Map.Entry<Integer, Section<T>> entry = sections.firstEntry();
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * 最后一个区间，为空时返回null
+     *
+     * @return
+     */
+    Section<T> last() {
+        Map.Entry<Integer, Section<T>> entry = sections.lastEntry();
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * 修改次数
+     *
+     * @return
+     */
+    int modCount() {
+        return modCount;
+    }
+
+    /**
+     * 导出为Section集合（按左端点排序）
+     *
+     * @return
+     */
+    public List<Section<T>> toList() {
+        return Lists.newArrayList(sections.values());
+    }
+
+    /**
+     * 判断section是否与target相交或相连（时间上）
+     *
+     * @param section
+     * @param target
+     * @param <T>
+     * @return
+     */
+    static <T> boolean isTouched(Section<T> section, Section<T> target) {
+        return section.isIntersected(target) || section.isContinuous(target);
+    }
+
+    /**
+     * 用target覆盖touched（按左端点排序，与target相交或相连的区间），返回替换后的区间（按左端点排序）
+     *
+     * @param touched
+     * @param target
+     * @param <T>
+     * @return
+     */
+    static <T> List<Section<T>> splice(List<Section<T>> touched, Section<T> target) {
+
+        List<Section<T>> before = Lists.newArrayList();
+        List<Section<T>> after = Lists.newArrayList();
+
+        Section<T> connected = null;
+        int lowerPoint = target.getLowerPoint();
+        int upperPoint = target.getUpperPoint();
+
+        for (Section<T> section : touched) {
+
+            if (section.isConnected(target)) {
+                //数据相同，连接区间（保留原区间的数据）
+                if (connected == null) {
+                    connected = section;
+                }
+                lowerPoint = Math.min(lowerPoint, section.getLowerPoint());
+                upperPoint = Math.max(upperPoint, section.getUpperPoint());
+                continue;
+            }
+
+            if (!section.isIntersected(target)) {
+                //相邻但数据不同，保持不变
+                if (section.getUpperPoint() < target.getLowerPoint()) {
+                    before.add(section);
+                } else {
+                    after.add(section);
+                }
+                continue;
+            }
+
+            if (section.getLowerPoint() < target.getLowerPoint()) {
+                before.add(Section.buildCanonical(section.getLowerPoint(), decreaseByDays(target.getLowerPoint(), 1),
+                        section.getData(), section.getComparator()));
+            }
+
+            if (section.getUpperPoint() > target.getUpperPoint()) {
+                after.add(Section.buildCanonical(decreaseByDays(target.getUpperPoint(), -1), section.getUpperPoint(),
+                        section.getData(), section.getComparator()));
+            }
+        }
+
+        Section<T> merged = target;
+        if (connected != null) {
+            merged = lowerPoint == connected.getLowerPoint() && upperPoint == connected.getUpperPoint() ? connected
+                    : Section.buildCanonical(lowerPoint, upperPoint, connected.getData(), connected.getComparator());
+        }
+
+        before.add(merged);
+        before.addAll(after);
+        return before;
+    }
+
+    private SectionTimeline() {
+
+    }
+}
@@ -8,8 +8,10 @@
 
 package org.bugkillers.section;
 
+import java.nio.IntBuffer;
+import java.util.Comparator;
+
 import org.joda.time.DateTime;
-import org.joda.time.Days;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 
@@ -26,6 +28,67 @@ class SectionUtil {
 
     private static final DateTimeFormatter JODA_FORMAT = DateTimeFormat.forPattern(NUM_DATE_PATTERN);
 
+    /**
+     * 按左端点排序
+     */
+    static final Comparator<Section<?>> LOWER_POINT_ORDER = new Comparator<Section<?>>() {
+        @Override
+        public int compare(Section<?> o1, Section<?> o2) {
+            return Integer.compare(o1.getLowerPoint(), o2.getLowerPoint());
+        }
+    };
+
+    /**
+     * 支持的最小年份（yyyyMMdd 为8位数字）
+     */
+    static final int MIN_YEAR = 1000;
+
+    /**
+     * 支持的最大年份
+     */
+    static final int MAX_YEAR = 9999;
+
+    /**
+     * 每月天数表 [是否闰年][月份]
+     */
+    private static final int[][] DAYS_IN_MONTH = {
+            {0, 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31},
+            {0, 31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31}
+    };
+
+    /**
+     * 每月1日之前的天数表 [是否闰年][月份]，下标13为全年天数
+     */
+    private static final int[][] DAYS_BEFORE_MONTH = new int[2][14];
+
+    /**
+     * 每年1月1日对应的epoch day（1970-01-01为0），最后一位为哨兵
+     */
+    private static final int[] YEAR_START_DAY = new int[MAX_YEAR - MIN_YEAR + 2];
+
+    /**
+     * 支持的最小epoch day
+     */
+    static final int MIN_EPOCH_DAY;
+
+    /**
+     * 支持的最大epoch day
+     */
+    static final int MAX_EPOCH_DAY;
+
+    static {
+        for (int leap = 0; leap < 2; leap++) {
+            for (int month = 1; month <= 12; month++) {
+                DAYS_BEFORE_MONTH[leap][month + 1] = DAYS_BEFORE_MONTH[leap][month] + DAYS_IN_MONTH[leap][month];
+            }
+        }
+        for (int i = 0; i < YEAR_START_DAY.length; i++) {
+            YEAR_START_DAY[i] = daysFromCivil(MIN_YEAR + i);
+        }
+        MIN_EPOCH_DAY = YEAR_START_DAY[0];
+        MAX_EPOCH_DAY = YEAR_START_DAY[YEAR_START_DAY.length - 1] - 1;
+    }
+
 //    /**
 //     * 根据起始结束时间，获取每个时间点
 //     *
@@ -51,10 +114,15 @@ class SectionUtil {
 //        return list;
 //    }
 
+    /**
+     * 判断两个日期是否相差一个自然日
+     *
+     * @param startDate
+     * @param endDate
+     * @return
+     */
     public static boolean isDateContinuous(int startDate, int endDate) {
-        DateTime date1 = new DateTime(startDate / 10000, (startDate % 10000) / 100, (startDate % 10000) % 100, 0, 0);
-        DateTime date2 = new DateTime(endDate / 10000, (endDate % 10000) / 100, (endDate % 10000) % 100, 0, 0);
-        return Days.daysBetween(date1, date2).getDays() == 1;
+        return toEpochDay(endDate) - toEpochDay(startDate) == 1;
     }
 
     /**
@@ -65,8 +133,7 @@ class SectionUtil {
      * @return
      */
     public static int decreaseByDays(int date, int days) {
-        DateTime dateTime = stringDateParseDateTime(String.valueOf(date));
-        return decreaseByDays(dateTime, days);
+        return fromEpochDay(toEpochDay(date) - days);
     }
 
     /**
@@ -99,16 +166,173 @@ class SectionUtil {
      */
     public static boolean isDate(int date) {
 
-        DateTime dateTime = null;
-        try {
-            dateTime = stringDateParseDateTime(String.valueOf(date));
-        } catch (Exception e) {
+        if (date < MIN_YEAR * 10000 + 101 || date > MAX_YEAR * 10000 + 1231) {
             return false;
         }
-        if (dateTime != null) {
-            return true;
+
+        int month = date / 100 % 100;
+        if (month < 1 || month > 12) {
+            return false;
         }
-        return false;
+
+        int day = date % 100;
+        return day >= 1 && day <= DAYS_IN_MONTH[leap(date / 10000)][month];
     }
 
+    /**
+     * yyyyMMdd 转换为 epoch day（1970-01-01为0）
+     * <p/>
+     * 调用方需保证date合法(见{@link #isDate(int)})
+     *
+     * @param date
+     * @return
+     */
+    public static int toEpochDay(int date) {
+        int year = date / 10000;
+        return YEAR_START_DAY[year - MIN_YEAR] + DAYS_BEFORE_MONTH[leap(year)][date / 100 % 100] + date % 100 - 1;
+    }
+
+    /**
+     * epoch day 转换为 yyyyMMdd
+     *
+     * @param epochDay
+     * @return
+     */
+    public static int fromEpochDay(int epochDay) {
+
+        if (epochDay < MIN_EPOCH_DAY || epochDay > MAX_EPOCH_DAY) {
+            throw new IllegalArgumentException("epochDay out of range:" + epochDay);
+        }
+
+        //按400年周期估算年份，再修正
+        int index = (int) ((long) (epochDay - MIN_EPOCH_DAY) * 400 / 146097);
+        while (YEAR_START_DAY[index + 1] <= epochDay) {
+            index++;
+        }
+        while (YEAR_START_DAY[index] > epochDay) {
+            index--;
+        }
+
+        int year = MIN_YEAR + index;
+        int dayOfYear = epochDay - YEAR_START_DAY[index];
+        int[] daysBeforeMonth = DAYS_BEFORE_MONTH[leap(year)];
+
+        int month = dayOfYear / 31 + 1;
+        if (daysBeforeMonth[month + 1] <= dayOfYear) {
+            month++;
+        }
+
+        return year * 10000 + month * 100 + dayOfYear - daysBeforeMonth[month] + 1;
+    }
+
+    /**
+     * 闰年返回1，否则返回0（用作表下标）
+     *
+     * @param year
+     * @return
+     */
+    private static int leap(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0) ? 1 : 0;
+    }
+
+    /**
+     * 计算某年1月1日的epoch day（仅初始化查表使用）
+     *
+     * @param year
+     * @return
+     */
+    private static int daysFromCivil(int year) {
+        int y = year - 1;
+        int era = y / 400;
+        int yoe = y - era * 400;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + 306;
+        return era * 146097 + doe - 719468;
+    }
+
+    /**
+     * [0, length)中小于等于key的最后一个下标，不存在返回-1（array需升序）
+     *
+     * @param array
+     * @param length
+     * @param key
+     * @return
+     */
+    static int floor(int[] array, int length, int key) {
+        int low = 0;
+        int high = length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * [0, length)中小于等于key的最后一个下标，不存在返回-1（array需升序）
+     *
+     * @param array
+     * @param length
+     * @param key
+     * @return
+     */
+    static int floor(long[] array, int length, long key) {
+        int low = 0;
+        int high = length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * [0, length)中小于等于key的最后一个下标，不存在返回-1（buffer需升序）
+     *
+     * @param buffer
+     * @param length
+     * @param key
+     * @return
+     */
+    static int floor(IntBuffer buffer, int length, int key) {
+        int low = 0;
+        int high = length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.get(mid) <= key) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * 左端点小于等于date的最后一个区间下标，不存在返回-1（sections需按左端点排序）
+     *
+     * @param sections
+     * @param date
+     * @return
+     */
+    static int floor(Section<?>[] sections, int date) {
+        int low = 0;
+        int high = sections.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sections[mid].getLowerPoint() <= date) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
 }
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+/**
+ * 从区间数据中取出数值（如价格），用于聚合查询（由使用方实现）
+ */
+public interface SectionValueExtractor<T> {
+
+    /**
+     * 每天的数值
+     *
+     * @param data
+     * @return
+     */
+    double valueOf(T data);
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionUtil.toEpochDay;
+
+/**
+ * 多路时间线同时向前遍历（SectionDiff、SectionAlgebra、SectionMergeIterator共用）
+ * <p/>
+ * 输入为多个按左端点排序且区间不重复的Section迭代器，按所有输入的端点把日期切成连续的范围依次输出，
+ * 每个范围内每一路要么整段覆盖、要么整段未覆盖，都未覆盖的空白直接跳过。只缓存每路当前的一个区间。
+ */
+final class SectionWalker<T> {
+
+    /**
+     * 输入
+     */
+    private final Iterator<Section<T>>[] sources;
+
+    /**
+     * 每路当前的区间，读完为null
+     */
+    private final Section<T>[] heads;
+
+    /**
+     * 每路当前区间的左端点（epoch day）
+     */
+    private final int[] headStarts;
+
+    /**
+     * 每路当前区间的右端点（epoch day）
+     */
+    private final int[] headEnds;
+
+    /**
+     * 扫描位置（epoch day）
+     */
+    private int point = Integer.MIN_VALUE;
+
+    /**
+     * 当前范围（epoch day）
+     */
+    private int start;
+    private int end;
+
+    /**
+     * 同时遍历两个时间线
+     *
+     * @param left
+     * @param right
+     * @param <T>
+     * @return
+     */
+    static <T> SectionWalker<T> of(List<Section<T>> left, List<Section<T>> right) {
+        List<Iterator<Section<T>>> sources = Lists.newArrayList();
+        sources.add(left.iterator());
+        sources.add(right.iterator());
+        return of(sources);
+    }
+
+    /**
+     * 同时遍历多个时间线
+     *
+     * @param sources
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    static <T> SectionWalker<T> of(List<Iterator<Section<T>>> sources) {
+        return new SectionWalker<>((Iterator<Section<T>>[]) sources.toArray(new Iterator<?>[sources.size()]));
+    }
+
+    /**
+     * 移动到下一个至少有一路覆盖的范围
+     *
+     * @return false 所有输入都已读完
+     */
+    boolean next() {
+
+        while (true) {
+
+            boolean remaining = false;
+            boolean covered = false;
+            int coveredEnd = Integer.MAX_VALUE;
+            int nextStart = Integer.MAX_VALUE;
+
+            for (int i = 0; i < heads.length; i++) {
+                //丢弃已经扫描过的区间
+                while (heads[i] != null && headEnds[i] < point) {
+                    advance(i);
+                }
+                if (heads[i] == null) {
+                    continue;
+                }
+                remaining = true;
+                if (headStarts[i] <= point) {
+                    covered = true;
+                    coveredEnd = Math.min(coveredEnd, headEnds[i]);
+                } else {
+                    nextStart = Math.min(nextStart, headStarts[i]);
+                }
+            }
+
+            if (!remaining) {
+                return false;
+            }
+
+            if (!covered) {
+                //都未覆盖，跳到下一个区间
+                point = nextStart;
+                continue;
+            }
+
+            start = point;
+            end = Math.min(coveredEnd, nextStart == Integer.MAX_VALUE ? Integer.MAX_VALUE : nextStart - 1);
+            point = end + 1;
+            return true;
+        }
+    }
+
+    /**
+     * 当前范围的左端点（epoch day）
+     */
+    int start() {
+        return start;
+    }
+
+    /**
+     * 当前范围的右端点（epoch day）
+     */
+    int end() {
+        return end;
+    }
+
+    /**
+     * 第i路覆盖当前范围的区间，未覆盖返回null
+     */
+    Section<T> section(int i) {
+        return heads[i] != null && headStarts[i] <= start ? heads[i] : null;
+    }
+
+    /**
+     * 第i路当前区间的左端点（epoch day）
+     */
+    int sectionStart(int i) {
+        return headStarts[i];
+    }
+
+    /**
+     * 第i路当前区间的右端点（epoch day）
+     */
+    int sectionEnd(int i) {
+        return headEnds[i];
+    }
+
+    /**
+     * 第i路是否已经读完
+     */
+    boolean exhausted(int i) {
+        return heads[i] == null;
+    }
+
+    /**
+     * 读取第i路的下一个区间
+     */
+    private void advance(int i) {
+
+        if (!sources[i].hasNext()) {
+            heads[i] = null;
+            return;
+        }
+
+        Section<T> section = sources[i].next();
+        checkArgument(section != null, "section can't be null");
+
+        int sectionStart = toEpochDay(section.getLowerPoint());
+        if (heads[i] != null) {
+            checkArgument(sectionStart > headEnds[i],
+                    "source must be sorted and not repeated, now is %s-%s after %s-%s", section.getLowerPoint(),
+                    section.getUpperPoint(), heads[i].getLowerPoint(), heads[i].getUpperPoint());
+        }
+
+        heads[i] = section;
+        headStarts[i] = sectionStart;
+        headEnds[i] = toEpochDay(section.getUpperPoint());
+    }
+
+    @SuppressWarnings("unchecked")
+    private SectionWalker(Iterator<Section<T>>[] sources) {
+        this.sources = sources;
+        this.heads = (Section<T>[]) new Section<?>[sources.length];
+        this.headStarts = new int[sources.length];
+        this.headEnds = new int[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            advance(i);
+        }
+    }
+}
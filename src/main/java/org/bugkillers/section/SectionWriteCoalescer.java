@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 合并同一key上并发的覆盖写（线程安全）
+ * <p/>
+ * 每个key一个提交队列。提交者入队后尝试成为该key的合并者：合并者按提交顺序取出最多maxBatchSize个待写的覆盖，
+ * 拼成一次{@link SectionStore#merge(Object, List)}，完成这一批的所有future后即释放；队列中还有提交时交给executor
+ * 继续处理（新的提交者也可以先接手），合并者一次只处理一批。其他提交者直接返回future。
+ * 同一key同时只有一个合并者，不同key之间互不阻塞。队列处理完后移除该key的队列。
+ * <p/>
+ * 竞争越激烈每批越大，merge次数越少；没有竞争时每次提交直接merge一次，不经过其他线程。
+ */
+public final class SectionWriteCoalescer<K, T> {
+
+    /**
+     * 默认每批最多的提交个数
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1024;
+
+    /**
+     * 存储
+     */
+    private final SectionStore<K, T> store;
+
+    /**
+     * 每批最多的提交个数，限制合并者一次占用的时间
+     */
+    private final int maxBatchSize;
+
+    /**
+     * 一批处理完后队列中还有提交时，在executor中继续处理
+     */
+    private final Executor executor;
+
+    /**
+     * key -> 提交队列，入队和移除空队列都在map的锁内进行
+     */
+    private final ConcurrentMap<K, Lane<T>> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * 构造写合并器
+     *
+     * @param store
+     * @param <K>
+     * @param <T>
+     * @return
+     */
+    public static <K, T> SectionWriteCoalescer<K, T> create(SectionStore<K, T> store) {
+        return create(store, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * 构造写合并器
+     *
+     * @param store
+     * @param maxBatchSize 每批最多的提交个数
+     * @param <K>
+     * @param <T>
+     * @return
+     */
+    public static <K, T> SectionWriteCoalescer<K, T> create(SectionStore<K, T> store, int maxBatchSize) {
+        return create(store, maxBatchSize, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 构造写合并器
+     *
+     * @param store
+     * @param maxBatchSize 每批最多的提交个数
+     * @param executor     一批处理完后继续处理剩余提交的executor
+     * @param <K>
+     * @param <T>
+     * @return
+     */
+    public static <K, T> SectionWriteCoalescer<K, T> create(SectionStore<K, T> store, int maxBatchSize,
+                                                            Executor executor) {
+        checkArgument(store != null && executor != null, "store and executor can't be null");
+        checkArgument(maxBatchSize > 0, "maxBatchSize must be positive");
+        return new SectionWriteCoalescer<>(store, maxBatchSize, executor);
+    }
+
+    /**
+     * 提交用target覆盖key对应的时间线
+     *
+     * @param key
+     * @param target
+     * @return 覆盖生效后完成，结果为包含本次覆盖的merge结果（按左端点排序，不可修改）
+     */
+    public ListenableFuture<List<Section<T>>> submit(K key, Section<T> target) {
+        checkArgument(target != null, "target can't be null");
+        return submit(key, Collections.singletonList(target));
+    }
+
+    /**
+     * 提交按顺序用target中的区间覆盖key对应的时间线，target中的区间在同一批内连续生效
+     *
+     * @param key
+     * @param target
+     * @return 覆盖生效后完成，结果为包含本次覆盖的merge结果（按左端点排序，不可修改）
+     */
+    public ListenableFuture<List<Section<T>>> submit(K key, List<Section<T>> target) {
+
+        checkArgument(key != null, "key can't be null");
+        checkArgument(CollectionUtils.isNotEmpty(target), "target can't be empty");
+        for (Section<T> section : target) {
+            checkArgument(section != null, "section can't be null");
+        }
+
+        final Pending<T> pending = new Pending<>(Lists.newArrayList(target));
+
+        //在map的锁内入队，不会入队到已移除的队列
+        Lane<T> lane = lanes.compute(key, new BiFunction<K, Lane<T>, Lane<T>>() {
+            @Override
+            public Lane<T> apply(K k, Lane<T> current) {
+                Lane<T> lane = current == null ? new Lane<T>() : current;
+                lane.queue.offer(pending);
+                return lane;
+            }
+        });
+
+        drain(key, lane);
+
+        return pending.future;
+    }
+
+    /**
+     * 存储
+     *
+     * @return
+     */
+    public SectionStore<K, T> store() {
+        return store;
+    }
+
+    /**
+     * 成为合并者并处理一批提交，已有合并者时直接返回
+     */
+    private void drain(final K key, final Lane<T> lane) {
+
+        if (!lane.draining.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            List<Pending<T>> batch = Lists.newArrayList();
+            List<Section<T>> sections = Lists.newArrayList();
+
+            Pending<T> next;
+            while (batch.size() < maxBatchSize && (next = lane.queue.poll()) != null) {
+                batch.add(next);
+                sections.addAll(next.target);
+            }
+
+            if (!batch.isEmpty()) {
+                apply(key, batch, sections);
+            }
+
+            if (lane.queue.isEmpty()) {
+                retire(key, lane);
+            }
+        } finally {
+            lane.draining.set(false);
+        }
+
+        //释放后再检查一次队列，避免释放前入队的提交无人处理
+        if (!lane.queue.isEmpty()) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    drain(key, lane);
+                }
+            });
+        }
+    }
+
+    /**
+     * 队列为空时移除（与入队互斥，移除后的队列不会再有提交）
+     */
+    private void retire(K key, final Lane<T> lane) {
+        lanes.computeIfPresent(key, new BiFunction<K, Lane<T>, Lane<T>>() {
+            @Override
+            public Lane<T> apply(K k, Lane<T> current) {
+                return current == lane && lane.queue.isEmpty() ? null : current;
+            }
+        });
+    }
+
+    /**
+     * 当前的提交队列个数
+     */
+    int laneCount() {
+        return lanes.size();
+    }
+
+    /**
+     * 一次merge一批提交，并完成它们的future
+     */
+    private void apply(K key, List<Pending<T>> batch, List<Section<T>> sections) {
+
+        List<Section<T>> merged;
+        try {
+            merged = store.merge(key, sections);
+        } catch (RuntimeException e) {
+            for (Pending<T> pending : batch) {
+                pending.future.setException(e);
+            }
+            return;
+        }
+
+        for (Pending<T> pending : batch) {
+            pending.future.set(merged);
+        }
+    }
+
+    private SectionWriteCoalescer(SectionStore<K, T> store, int maxBatchSize, Executor executor) {
+        this.store = store;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = executor;
+    }
+
+    /**
+     * 一个key的提交队列
+     */
+    private static final class Lane<T> {
+
+        private final Queue<Pending<T>> queue = new ConcurrentLinkedQueue<>();
+
+        /**
+         * 是否有合并者
+         */
+        private final AtomicBoolean draining = new AtomicBoolean();
+    }
+
+    /**
+     * 一次提交
+     */
+    private static final class Pending<T> {
+
+        private final List<Section<T>> target;
+
+        private final SettableFuture<List<Section<T>>> future = SettableFuture.create();
+
+        private Pending(List<Section<T>> target) {
+            this.target = target;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.bugkillers.section.SectionUtil.floor;
+
+/**
+ * 多版本区间时间线，支持按版本或时间点查询（写操作加锁，读操作无锁）
+ * <p/>
+ * 每个版本只记录本次覆盖的区间、其自己跟自己merge后按左端点排序的结果和生效时间，O(k)，k为本次覆盖的区间个数；每{@value #CHECKPOINT_INTERVAL}个版本
+ * 保存一个{@link SectionSnapshot}作为检查点，快照之间共享未受影响的数据块，但每个快照有自己的块索引，O(n/64)。
+ * 平均每个版本的存储为 O(k + n/64/{@value #CHECKPOINT_INTERVAL})。
+ * <p/>
+ * 版本号从0（初始时间线）开始连续递增。当前版本查询为 O(log n)；历史版本查询先倒序在检查点之后各版本覆盖的区间中
+ * 二分查找，再查检查点快照，为 O(C log k + log n)，C不超过检查点间隔；按时间点查询另需二分定位版本，O(log V)。
+ * 历史版本的{@link #snapshot(int)}和{@link #toList(int)}需从检查点重放覆盖的区间。
+ */
+public final class VersionedSectionTimeline<T> {
+
+    /**
+     * 检查点间隔（版本数）
+     */
+    static final int CHECKPOINT_INTERVAL = 32;
+
+    /**
+     * 历史（不可变视图，只追加）
+     */
+    private volatile History<T> history;
+
+    /**
+     * 构造空的时间线，版本0为空
+     *
+     * @param <T>
+     * @return
+     */
+    public static <T> VersionedSectionTimeline<T> create() {
+        return new VersionedSectionTimeline<>(SectionSnapshot.<T>empty(), System.currentTimeMillis());
+    }
+
+    /**
+     * 由Section集合构造时间线（先自己跟自己merge），作为版本0
+     *
+     * @param source
+     * @param <T>
+     * @return
+     */
+    public static <T> VersionedSectionTimeline<T> of(List<Section<T>> source) {
+        return new VersionedSectionTimeline<>(SectionSnapshot.of(source), System.currentTimeMillis());
+    }
+
+    /**
+     * 用target覆盖时间线，时间为当前时间
+     *
+     * @param target
+     * @return 新版本号
+     */
+    public int apply(Section<T> target) {
+        checkArgument(target != null, "target can't be null");
+        return apply(Collections.singletonList(target), System.currentTimeMillis());
+    }
+
+    /**
+     * 按顺序用target中的区间覆盖时间线，作为一个版本，时间为当前时间
+     *
+     * @param target
+     * @return 新版本号
+     */
+    public int apply(List<Section<T>> target) {
+        return apply(target, System.currentTimeMillis());
+    }
+
+    /**
+     * 按顺序用target中的区间覆盖时间线，作为一个版本
+     *
+     * @param target
+     * @param timeMillis 版本生效时间，不能早于上一个版本（早于时按上一个版本的时间记录）
+     * @return 新版本号
+     */
+    public synchronized int apply(List<Section<T>> target, long timeMillis) {
+
+        checkArgument(CollectionUtils.isNotEmpty(target), "target can't be empty");
+
+        History<T> current = history;
+
+        SectionSnapshot<T> snapshot = current.latest;
+        for (Section<T> section : target) {
+            checkArgument(section != null, "section can't be null");
+            snapshot = snapshot.apply(section);
+        }
+
+        long time = Math.max(timeMillis, current.times[current.size - 1]);
+
+        history = current.append(snapshot, time, Override.of(Collections.unmodifiableList(Lists.newArrayList(target))));
+        return history.size - 1;
+    }
+
+    /**
+     * 当前版本号
+     *
+     * @return
+     */
+    public int version() {
+        return history.size - 1;
+    }
+
+    /**
+     * 时间点（含）之前最后一个版本号，早于版本0时返回-1
+     *
+     * @param timeMillis
+     * @return
+     */
+    public int versionAsOf(long timeMillis) {
+
+        History<T> current = history;
+        return floor(current.times, current.size, timeMillis);
+    }
+
+    /**
+     * 版本的生效时间
+     *
+     * @param version
+     * @return
+     */
+    public long timeOf(int version) {
+        History<T> current = checkVersion(version);
+        return current.times[version];
+    }
+
+    /**
+     * 版本的快照，历史版本从检查点重放得到
+     *
+     * @param version
+     * @return
+     */
+    public SectionSnapshot<T> snapshot(int version) {
+
+        History<T> current = checkVersion(version);
+
+        if (version == current.size - 1) {
+            return current.latest;
+        }
+
+        int checkpoint = version / CHECKPOINT_INTERVAL;
+        SectionSnapshot<T> snapshot = current.checkpoints[checkpoint];
+        for (int v = checkpoint * CHECKPOINT_INTERVAL + 1; v <= version; v++) {
+            for (Section<T> section : current.overrides[v].target) {
+                snapshot = snapshot.apply(section);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 版本中覆盖的区间（版本0为空）
+     *
+     * @param version
+     * @return
+     */
+    public List<Section<T>> overrides(int version) {
+        History<T> current = checkVersion(version);
+        return current.overrides[version].target;
+    }
+
+    /**
+     * 当前版本中根据日期命中一条数据，不存在返回null
+     *
+     * @param date
+     * @return
+     */
+    public T hit(int date) {
+        return history.latest.hit(date);
+    }
+
+    /**
+     * 指定版本中根据日期命中一条数据，不存在返回null
+     *
+     * @param version
+     * @param date
+     * @return
+     */
+    public T hit(int version, int date) {
+
+        History<T> current = checkVersion(version);
+
+        if (version == current.size - 1) {
+            return current.latest.hit(date);
+        }
+
+        //检查点之后最后一个覆盖date的版本
+        int checkpoint = version / CHECKPOINT_INTERVAL;
+        for (int v = version; v > checkpoint * CHECKPOINT_INTERVAL; v--) {
+            T data = current.overrides[v].hit(date);
+            if (data != null) {
+                return data;
+            }
+        }
+        return current.checkpoints[checkpoint].hit(date);
+    }
+
+    /**
+     * 时间点时的时间线中根据日期命中一条数据，早于版本0或不存在返回null
+     *
+     * @param timeMillis
+     * @param date
+     * @return
+     */
+    public T hitAsOf(long timeMillis, int date) {
+        int version = versionAsOf(timeMillis);
+        return version < 0 ? null : hit(version, date);
+    }
+
+    /**
+     * 指定版本导出为Section集合（按左端点排序）
+     *
+     * @param version
+     * @return
+     */
+    public List<Section<T>> toList(int version) {
+        return snapshot(version).toList();
+    }
+
+    /**
+     * 时间点时的时间线导出为Section集合（按左端点排序），早于版本0时为空
+     *
+     * @param timeMillis
+     * @return
+     */
+    public List<Section<T>> toListAsOf(long timeMillis) {
+        int version = versionAsOf(timeMillis);
+        return version < 0 ? Collections.<Section<T>>emptyList() : toList(version);
+    }
+
+    private History<T> checkVersion(int version) {
+        History<T> current = history;
+        checkArgument(version >= 0 && version < current.size, "version out of range:%s", version);
+        return current;
+    }
+
+    @SuppressWarnings("unchecked")
+    private VersionedSectionTimeline(SectionSnapshot<T> snapshot, long timeMillis) {
+        History<T> initial = new History<>((SectionSnapshot<T>[]) new SectionSnapshot<?>[4], new long[16],
+                (Override<T>[]) new Override<?>[16], 0, null);
+        this.history = initial.append(snapshot, timeMillis, Override.of(Collections.<Section<T>>emptyList()));
+    }
+
+    /**
+     * 一个版本覆盖的区间
+     */
+    private static final class Override<T> {
+
+        /**
+         * 覆盖的区间（按覆盖顺序）
+         */
+        private final List<Section<T>> target;
+
+        /**
+         * 覆盖的区间自己跟自己merge后的结果（按左端点排序、不重复，后覆盖的生效）
+         */
+        private final Section<T>[] sections;
+
+        /**
+         * 左端点（升序）
+         */
+        private final int[] lowerPoints;
+
+        @SuppressWarnings("unchecked")
+        static <T> Override<T> of(List<Section<T>> target) {
+
+            List<Section<T>> merged = target.isEmpty() ? target : Section.merge((Section<T>) null, target, true);
+
+            Section<T>[] sections = (Section<T>[]) merged.toArray(new Section<?>[merged.size()]);
+            int[] lowerPoints = new int[sections.length];
+            for (int i = 0; i < sections.length; i++) {
+                lowerPoints[i] = sections[i].getLowerPoint();
+            }
+            return new Override<>(target, sections, lowerPoints);
+        }
+
+        /**
+         * 本版本中覆盖date的数据，未覆盖返回null，O(log k)
+         */
+        T hit(int date) {
+            int i = floor(lowerPoints, lowerPoints.length, date);
+            return i >= 0 && date <= sections[i].getUpperPoint() ? sections[i].getData() : null;
+        }
+
+        private Override(List<Section<T>> target, Section<T>[] sections, int[] lowerPoints) {
+            this.target = target;
+            this.sections = sections;
+            this.lowerPoints = lowerPoints;
+        }
+    }
+
+    /**
+     * 历史
+     * <p/>
+     * 数组只在末尾之后追加，旧的History对象看到的元素不再变化；容量不足时复制到新数组。
+     */
+    private static final class History<T> {
+
+        /**
+         * 检查点快照，第i个为版本 i * CHECKPOINT_INTERVAL 的快照
+         */
+        private final SectionSnapshot<T>[] checkpoints;
+
+        private final long[] times;
+
+        private final Override<T>[] overrides;
+
+        private final int size;
+
+        /**
+         * 当前版本的快照
+         */
+        private final SectionSnapshot<T> latest;
+
+        History<T> append(SectionSnapshot<T> snapshot, long timeMillis, Override<T> override) {
+
+            SectionSnapshot<T>[] checkpoints = this.checkpoints;
+            long[] times = this.times;
+            Override<T>[] overrides = this.overrides;
+
+            if (size == times.length) {
+                int capacity = size + (size >> 1) + 1;
+                times = Arrays.copyOf(times, capacity);
+                overrides = Arrays.copyOf(overrides, capacity);
+            }
+
+            if (size % CHECKPOINT_INTERVAL == 0) {
+                int checkpoint = size / CHECKPOINT_INTERVAL;
+                if (checkpoint == checkpoints.length) {
+                    checkpoints = Arrays.copyOf(checkpoints, checkpoint * 2);
+                }
+                checkpoints[checkpoint] = snapshot;
+            }
+
+            times[size] = timeMillis;
+            overrides[size] = override;
+
+            return new History<>(checkpoints, times, overrides, size + 1, snapshot);
+        }
+
+        private History(SectionSnapshot<T>[] checkpoints, long[] times, Override<T>[] overrides, int size,
+                        SectionSnapshot<T> latest) {
+            this.checkpoints = checkpoints;
+            this.times = times;
+            this.overrides = overrides;
+            this.size = size;
+            this.latest = latest;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.BASE_DAY;
+import static org.bugkillers.section.SectionFixtures.COMPARATOR;
+import static org.bugkillers.section.SectionFixtures.dataAt;
+import static org.bugkillers.section.SectionFixtures.day;
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.isNormalized;
+import static org.bugkillers.section.SectionFixtures.randomSections;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * CompactSectionList 测试
+ */
+public class CompactSectionListTest {
+
+    @Test
+    public void mergeMatchesSectionMerge() {
+        Random random = new Random(1L);
+        for (int i = 0; i < 3000; i++) {
+            List<Section<Integer>> source = randomSections(random, 1 + random.nextInt(10), 60, 10, 3);
+            List<Section<Integer>> target = randomSections(random, 1 + random.nextInt(10), 60, 10, 3);
+
+            CompactSectionList<Integer> compact = CompactSectionList.of(source).merge(target);
+            List<Section<Integer>> expected = Section.merge(source, target);
+
+            assertEquals(describe(expected), describe(compact.toList()));
+            assertTrue(isNormalized(compact.toList()));
+            assertEquals(expected.size(), compact.size());
+            for (int day = BASE_DAY - 1; day < BASE_DAY + 72; day++) {
+                assertEquals(dataAt(expected, fromEpochDay(day)), compact.hit(fromEpochDay(day)));
+            }
+        }
+    }
+
+    @Test
+    public void mergeRemapsOtherDictionary() {
+        Random random = new Random(2L);
+        for (int i = 0; i < 1000; i++) {
+            List<Section<Integer>> source = randomSections(random, 1 + random.nextInt(10), 60, 10, 4);
+            List<Section<Integer>> target = randomSections(random, 1 + random.nextInt(10), 60, 10, 4);
+
+            CompactSectionList<Integer> left = CompactSectionList.of(source);
+            CompactSectionList<Integer> right = CompactSectionList.of(target);
+            CompactSectionList<Integer> merged = left.merge(right);
+
+            assertSame(left.dictionary(), merged.dictionary());
+            assertEquals(describe(Section.merge(source, target)), describe(merged.toList()));
+            for (int j = 0; j < merged.size(); j++) {
+                assertEquals(merged.toList().get(j).getData(), merged.dictionary().get(merged.getDataId(j)));
+            }
+        }
+    }
+
+    @Test
+    public void connectMatchesConcatenation() {
+        Random random = new Random(3L);
+        for (int i = 0; i < 500; i++) {
+            List<Section<Integer>> first = Section.merge((Section<Integer>) null,
+                    randomSections(random, 1 + random.nextInt(10), 40, 10, 3), true);
+            int last = SectionUtil.toEpochDay(first.get(first.size() - 1).getUpperPoint()) - BASE_DAY;
+            List<Section<Integer>> second = Lists.newArrayList();
+            for (Section<Integer> section : randomSections(random, 1 + random.nextInt(10), 40, 10, 3)) {
+                int start = SectionUtil.toEpochDay(section.getLowerPoint()) - BASE_DAY + last + 1;
+                int end = SectionUtil.toEpochDay(section.getUpperPoint()) - BASE_DAY + last + 1;
+                second.add(section(start, end, section.getData()));
+            }
+
+            CompactSectionList<Integer> connected = CompactSectionList.of(first).connect(CompactSectionList.of(second));
+
+            List<Section<Integer>> expected = Section.merge(first, second);
+            assertEquals(describe(expected), describe(connected.toList()));
+            assertTrue(isNormalized(connected.toList()));
+        }
+    }
+
+    @Test
+    public void connectJoinsAdjacentRunWithSameData() {
+        CompactSectionList<Integer> connected = CompactSectionList.of(Lists.newArrayList(section(0, 9, 1)))
+                .connect(CompactSectionList.of(Lists.newArrayList(section(10, 19, 1), section(20, 29, 2))));
+
+        assertEquals(2, connected.size());
+        assertEquals(day(19), connected.getUpperPoint(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void connectRejectsOverlap() {
+        CompactSectionList.of(Lists.newArrayList(section(0, 9, 1)))
+                .connect(CompactSectionList.of(Lists.newArrayList(section(9, 19, 2))));
+    }
+
+    @Test
+    public void accessors() {
+        CompactSectionList<Integer> compact = CompactSectionList.of(
+                Lists.newArrayList(section(0, 9, 1), section(20, 29, 2)), SectionDictionary.create(COMPARATOR));
+
+        assertEquals(2, compact.size());
+        assertEquals(day(20), compact.getLowerPoint(1));
+        assertEquals(day(29), compact.getUpperPoint(1));
+        assertEquals(Integer.valueOf(2), compact.dictionary().get(compact.getDataId(1)));
+        assertNull(compact.hit(day(15)));
+        assertNull(compact.hit(20151301));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void accessorRejectsOutOfRange() {
+        CompactSectionList.of(Lists.newArrayList(section(0, 9, 1))).getLowerPoint(1);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.bugkillers.section.SectionFixtures.day;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ConcurrentSectionTimeline 测试
+ */
+public class ConcurrentSectionTimelineTest {
+
+    private static final int WRITERS = 4;
+
+    private static final int APPLIES = 500;
+
+    @Test
+    public void concurrentAppliesAreNotLost() throws Exception {
+        final ConcurrentSectionTimeline<Integer> timeline = ConcurrentSectionTimeline.create();
+        final AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + 1);
+        try {
+            List<Future<?>> writers = Lists.newArrayList();
+            for (int w = 0; w < WRITERS; w++) {
+                final int writer = w;
+                writers.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < APPLIES; i++) {
+                            //每个写者覆盖自己的天，并用两天的批量写验证原子发布
+                            int offset = (i * WRITERS + writer) * 3;
+                            timeline.apply(Lists.newArrayList(section(offset, offset, writer),
+                                    section(offset + 1, offset + 1, writer)));
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            Future<?> reader = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    while (!done.get()) {
+                        SectionSnapshot<Integer> snapshot = timeline.snapshot();
+                        for (int i = 0; i < APPLIES * WRITERS; i += 97) {
+                            Integer first = snapshot.hit(day(i * 3));
+                            Integer second = snapshot.hit(day(i * 3 + 1));
+                            assertTrue(first == null ? second == null : first.equals(second));
+                        }
+                    }
+                    return null;
+                }
+            });
+
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            done.set(true);
+            reader.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        SectionSnapshot<Integer> snapshot = timeline.snapshot();
+        assertEquals(WRITERS * APPLIES, snapshot.size());
+        assertEquals(2 * WRITERS * APPLIES, snapshot.version());
+        for (int i = 0; i < APPLIES * WRITERS; i++) {
+            assertEquals(Integer.valueOf(i % WRITERS), timeline.hit(day(i * 3 + 1)));
+        }
+    }
+}
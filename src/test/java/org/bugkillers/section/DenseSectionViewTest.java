@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.BASE_DAY;
+import static org.bugkillers.section.SectionFixtures.day;
+import static org.bugkillers.section.SectionFixtures.randomSections;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DenseSectionView 测试
+ */
+public class DenseSectionViewTest {
+
+    @Test
+    public void denseHitMatchesTimeline() {
+        assertEquals(0, assertHitMatchesTimeline(new Random(51L), DenseSectionView.DEFAULT_MAX_SPAN_DAYS));
+    }
+
+    @Test
+    public void sparseHitMatchesTimeline() {
+        assertTrue(assertHitMatchesTimeline(new Random(52L), 5) > 0);
+    }
+
+    @Test
+    public void switchesToSparseWhenSpanGrows() {
+        SectionTimeline<Integer> timeline = SectionTimeline.create();
+        DenseSectionView<Integer> view = DenseSectionView.of(timeline, 30);
+
+        view.apply(section(0, 9, 1));
+        assertTrue(view.isDense());
+
+        view.apply(section(100, 109, 2));
+        assertFalse(view.isDense());
+        assertEquals(Integer.valueOf(2), view.hit(day(105)));
+        assertEquals(Integer.valueOf(1), view.hit(day(9)));
+
+        timeline.apply(section(5, 104, 3));
+        assertFalse(view.isDense());
+        assertEquals(Integer.valueOf(3), view.hit(day(50)));
+        assertEquals(Integer.valueOf(2), view.hit(day(105)));
+    }
+
+    @Test
+    public void dictionaryIsRebuiltFromLiveData() {
+        SectionTimeline<Integer> timeline = SectionTimeline.create();
+        DenseSectionView<Integer> view = DenseSectionView.of(timeline);
+
+        view.apply(section(0, 9, 0));
+        for (int i = 1; i <= 1000; i++) {
+            view.apply(section(0, 9, i));
+            assertEquals(Integer.valueOf(i), view.hit(day(5)));
+        }
+
+        //时间线中只剩一个数据，被覆盖掉的数据不会一直留在字典中
+        assertTrue(view.dataCount() <= 16);
+    }
+
+    /**
+     * 通过视图和直接修改时间线交替覆盖，每次覆盖后逐天比较视图和时间线的命中结果
+     *
+     * @return 未展开时比较的次数
+     */
+    private static int assertHitMatchesTimeline(Random random, int maxSpanDays) {
+        int sparse = 0;
+        for (int i = 0; i < 200; i++) {
+            SectionTimeline<Integer> timeline = SectionTimeline.of(randomSections(random, 1 + random.nextInt(5),
+                    40, 10, 4));
+            DenseSectionView<Integer> view = DenseSectionView.of(timeline, maxSpanDays);
+
+            for (Section<Integer> target : randomSections(random, 1 + random.nextInt(10), 40, 10, 4)) {
+                if (random.nextBoolean()) {
+                    view.apply(target);
+                } else {
+                    timeline.apply(target);
+                }
+                for (int offset = -2; offset < 52; offset++) {
+                    int date = fromEpochDay(BASE_DAY + offset);
+                    assertEquals(timeline.hit(date), view.hit(date));
+                }
+                if (!view.isDense()) {
+                    sparse++;
+                }
+            }
+        }
+        return sparse;
+    }
+}
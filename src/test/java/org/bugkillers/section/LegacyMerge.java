@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+
+import java.util.List;
+
+/**
+ * 原逐个merge实现（扫描线引擎之前的版本），作为差分测试的参照
+ * <p/>
+ * 只依赖未改动的两个Section的merge，按原来的顺序逐个覆盖。
+ */
+final class LegacyMerge {
+
+    private LegacyMerge() {
+
+    }
+
+    /**
+     * 原 merge(List, List, true)
+     */
+    static <T> List<Section<T>> merge(List<Section<T>> source, List<Section<T>> target) {
+        List<Section<T>> result = mergeSelf(source);
+        for (Section<T> section : mergeSelf(target)) {
+            result = merge(result, section);
+        }
+        return result;
+    }
+
+    /**
+     * 原自己跟自己merge
+     */
+    static <T> List<Section<T>> mergeSelf(List<Section<T>> sections) {
+        List<Section<T>> result = Lists.newArrayList(sections.get(0));
+        for (int i = 1; i < sections.size(); i++) {
+            result = merge(result, sections.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * 原 merge(List, Section, false)：找到第一个与target相连或相交的区间，两两merge后把结果逐个并回去
+     */
+    static <T> List<Section<T>> merge(List<Section<T>> source, Section<T> target) {
+
+        for (Section<T> section : source) {
+            if (section.isConnected(target) || section.isIntersected(target)) {
+                List<Section<T>> rest = Lists.newArrayList(source);
+                rest.remove(section);
+                for (Section<T> piece : Section.merge(section, target)) {
+                    rest = merge(rest, piece);
+                }
+                return rest;
+            }
+        }
+
+        List<Section<T>> result = Lists.newArrayList(source);
+        result.add(target);
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.bugkillers.section.SectionFixtures.COMPARATOR;
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.randomSections;
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.bugkillers.section.SectionUtil.toEpochDay;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * LongSection 测试：与以epoch day为端点的Section对照
+ */
+public class LongSectionTest {
+
+    /**
+     * 整点
+     */
+    private static final LongSectionDomain HOURS = LongSectionDomain.of(1, TimeUnit.HOURS);
+
+    @Test
+    public void mergeMatchesSectionOnEpochDays() {
+        Random random = new Random(1L);
+        for (int i = 0; i < 5000; i++) {
+            List<Section<Integer>> source = randomSections(random, 1 + random.nextInt(8), 40, 10, 3);
+            List<Section<Integer>> target = randomSections(random, 1 + random.nextInt(8), 40, 10, 3);
+
+            List<LongSection<Integer>> merged = LongSection.merge(toLong(source, LongSectionDomain.UNIT, 1L, 0L),
+                    toLong(target, LongSectionDomain.UNIT, 1L, 0L));
+
+            assertEquals(describe(Section.merge(source, target)), describe(fromLong(merged, 1L, 0L)));
+        }
+    }
+
+    @Test
+    public void mergeMatchesSectionOnScaledPoints() {
+        Random random = new Random(2L);
+        long step = HOURS.step();
+        //左端点超出int范围，扫描时按排名排序
+        long offset = -(1L << 40) * step;
+        for (int i = 0; i < 5000; i++) {
+            List<Section<Integer>> source = randomSections(random, 1 + random.nextInt(8), 40, 10, 3);
+            List<Section<Integer>> target = randomSections(random, 1 + random.nextInt(8), 40, 10, 3);
+
+            List<LongSection<Integer>> merged = LongSection.merge(toLong(source, HOURS, step, offset),
+                    toLong(target, HOURS, step, offset));
+
+            assertEquals(describe(Section.merge(source, target)), describe(fromLong(merged, step, offset)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeRejectsMixedDomains() {
+        LongSection.merge(Lists.newArrayList(LongSection.build(0L, 10L, 1, COMPARATOR, LongSectionDomain.UNIT)),
+                Lists.newArrayList(LongSection.build(0L, HOURS.step(), 2, COMPARATOR, HOURS)));
+    }
+
+    private static List<LongSection<Integer>> toLong(List<Section<Integer>> sections, LongSectionDomain domain,
+                                                     long step, long offset) {
+        List<LongSection<Integer>> result = Lists.newArrayList();
+        for (Section<Integer> section : sections) {
+            result.add(LongSection.build(offset + toEpochDay(section.getLowerPoint()) * step,
+                    offset + toEpochDay(section.getUpperPoint()) * step, section.getData(), COMPARATOR, domain));
+        }
+        return result;
+    }
+
+    private static List<Section<Integer>> fromLong(List<LongSection<Integer>> sections, long step, long offset) {
+        List<Section<Integer>> result = Lists.newArrayList();
+        for (LongSection<Integer> section : sections) {
+            result.add(Section.build(fromEpochDay((int) ((section.getLowerPoint() - offset) / step)),
+                    fromEpochDay((int) ((section.getUpperPoint() - offset) / step)), section.getData(), COMPARATOR));
+        }
+        return result;
+    }
+}
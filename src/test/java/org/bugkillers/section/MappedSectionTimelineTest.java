@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.BASE_DAY;
+import static org.bugkillers.section.SectionFixtures.CODEC;
+import static org.bugkillers.section.SectionFixtures.COMPARATOR;
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.randomSections;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * MappedSectionTimeline 测试
+ */
+public class MappedSectionTimelineTest {
+
+    /**
+     * 文件头：magic、版本、区间个数、数据个数
+     */
+    private static final int HEADER_BYTES = 16;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writeAndOpen() throws IOException {
+        Random random = new Random(1L);
+        for (int i = 0; i < 100; i++) {
+            List<Section<Integer>> source = randomSections(random, 1 + random.nextInt(30), 100, 10, 5);
+            Path path = folder.newFile().toPath();
+
+            MappedSectionTimeline.write(path, source, CODEC);
+            MappedSectionTimeline<Integer> timeline = MappedSectionTimeline.open(path, CODEC, COMPARATOR);
+
+            SectionTimeline<Integer> expected = SectionTimeline.of(source);
+            assertEquals(describe(expected.toList()), describe(timeline.toList()));
+            for (int day = BASE_DAY - 1; day < BASE_DAY + 111; day++) {
+                assertEquals(expected.hit(fromEpochDay(day)), timeline.hit(fromEpochDay(day)));
+            }
+        }
+    }
+
+    @Test
+    public void rewriteKeepsMappedReaderOnOldContent() throws IOException {
+        Path path = folder.newFile().toPath();
+        MappedSectionTimeline.write(path, Lists.newArrayList(section(0, 9, 1)), CODEC);
+        MappedSectionTimeline<Integer> old = MappedSectionTimeline.open(path, CODEC, COMPARATOR);
+
+        MappedSectionTimeline.write(path, Lists.newArrayList(section(0, 19, 2), section(30, 39, 3)), CODEC);
+        MappedSectionTimeline<Integer> current = MappedSectionTimeline.open(path, CODEC, COMPARATOR);
+
+        assertEquals(Integer.valueOf(1), old.hit(SectionFixtures.day(5)));
+        assertEquals(1, old.size());
+        assertEquals(Integer.valueOf(2), current.hit(SectionFixtures.day(5)));
+        assertEquals(2, current.size());
+        //临时文件已替换掉目标文件
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void validateRejectsCorruptedFiles() throws IOException {
+        Path path = folder.newFile().toPath();
+        MappedSectionTimeline.write(path, Lists.newArrayList(section(0, 9, 1), section(20, 29, 2)), CODEC);
+        byte[] bytes = Files.readAllBytes(path);
+        int starts = HEADER_BYTES;
+        int ends = HEADER_BYTES + 8;
+        int dataIds = HEADER_BYTES + 16;
+
+        //数据下标越界
+        assertCorrupted(bytes, dataIds + 4, 2);
+        assertCorrupted(bytes, dataIds, -1);
+        //左端点大于右端点
+        assertCorrupted(bytes, ends, BASE_DAY - 1);
+        //区间重复
+        assertCorrupted(bytes, starts + 4, BASE_DAY + 9);
+        //超出支持的日期范围
+        assertCorrupted(bytes, ends + 4, Integer.MAX_VALUE);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void hitRejectsCorruptedDataId() throws IOException {
+        Path path = folder.newFile().toPath();
+        MappedSectionTimeline.write(path, Lists.newArrayList(section(0, 9, 1)), CODEC);
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).putInt(HEADER_BYTES + 8, 5);
+        Files.write(path, bytes);
+
+        MappedSectionTimeline.open(path, CODEC, COMPARATOR).hit(SectionFixtures.day(0));
+    }
+
+    @Test
+    public void openRejectsCorruptedHeader() throws IOException {
+        Path path = folder.newFile().toPath();
+        MappedSectionTimeline.write(path, Lists.newArrayList(section(0, 9, 1)), CODEC);
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).putInt(8, 1000);
+        Files.write(path, bytes);
+        try {
+            MappedSectionTimeline.open(path, CODEC, COMPARATOR);
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertEquals("corrupted section file:" + path, e.getMessage());
+        }
+    }
+
+    private void assertCorrupted(byte[] bytes, int offset, int value) throws IOException {
+        byte[] corrupted = bytes.clone();
+        ByteBuffer.wrap(corrupted).putInt(offset, value);
+        Path path = folder.newFile().toPath();
+        Files.write(path, corrupted);
+        //打开时只校验文件头
+        MappedSectionTimeline<Integer> timeline = MappedSectionTimeline.open(path, CODEC, COMPARATOR);
+        try {
+            timeline.validate();
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertEquals("corrupted section file:" + path, e.getMessage());
+        }
+    }
+}
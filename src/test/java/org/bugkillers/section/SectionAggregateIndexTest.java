@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.BASE_DAY;
+import static org.bugkillers.section.SectionFixtures.day;
+import static org.bugkillers.section.SectionFixtures.days;
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.randomMerged;
+import static org.bugkillers.section.SectionFixtures.randomSections;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SectionAggregateIndex 测试：与按天展开的暴力计算对照
+ */
+public class SectionAggregateIndexTest {
+
+    private static final SectionValueExtractor<Integer> VALUE = new SectionValueExtractor<Integer>() {
+        @Override
+        public double valueOf(Integer data) {
+            return data;
+        }
+    };
+
+    @Test
+    public void aggregateMatchesBruteForce() {
+        Random random = new Random(1L);
+        for (int run = 0; run < 300; run++) {
+            List<Section<Integer>> source = randomMerged(random, 1 + random.nextInt(40), 200, 10, 10);
+            SectionTimeline<Integer> timeline = SectionTimeline.of(source);
+            SectionAggregateIndex<Integer> index = SectionAggregateIndex.build(Lists.reverse(source), VALUE);
+
+            for (int step = 0; step < 10; step++) {
+                assertQueries(random, timeline.toList(), index);
+                for (Section<Integer> target : randomSections(random, 1 + random.nextInt(3), 220, 30, 10)) {
+                    timeline.apply(target);
+                    index.apply(target);
+                }
+                assertEquals(describe(timeline.toList()), describe(index.toList()));
+                assertEquals(timeline.size(), index.size());
+            }
+        }
+    }
+
+    @Test
+    public void emptyRange() {
+        SectionAggregateIndex<Integer> index = SectionAggregateIndex.build(
+                Lists.newArrayList(section(0, 9, 2), section(20, 29, 5)), VALUE);
+
+        SectionAggregate aggregate = index.aggregate(day(10), day(19));
+        assertEquals(0L, aggregate.getCount());
+        assertEquals(0D, aggregate.getSum(), 0D);
+        assertTrue(Double.isNaN(aggregate.getMin()));
+        assertTrue(Double.isNaN(index.max(day(10), day(19))));
+
+        assertEquals(20L, index.count(day(0), day(29)));
+        assertEquals(70D, index.sum(day(0), day(29)), 0D);
+        assertEquals(2D, index.min(day(5), day(25)), 0D);
+        assertEquals(5D, index.max(day(5), day(25)), 0D);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void buildRejectsRepeatedSections() {
+        SectionAggregateIndex.build(Lists.newArrayList(section(0, 9, 1), section(9, 12, 2)), VALUE);
+    }
+
+    private static void assertQueries(Random random, List<Section<Integer>> sections,
+                                      SectionAggregateIndex<Integer> index) {
+        Map<Integer, Integer> days = days(sections);
+        for (int q = 0; q < 20; q++) {
+            int start = BASE_DAY - 5 + random.nextInt(240);
+            int end = start + random.nextInt(60);
+
+            long count = 0;
+            double sum = 0;
+            double min = Double.NaN;
+            double max = Double.NaN;
+            for (int day = start; day <= end; day++) {
+                Integer value = days.get(day);
+                if (value != null) {
+                    count++;
+                    sum += value;
+                    min = count == 1 ? value : Math.min(min, value);
+                    max = count == 1 ? value : Math.max(max, value);
+                }
+            }
+
+            SectionAggregate aggregate = index.aggregate(fromEpochDay(start), fromEpochDay(end));
+            assertEquals(count, aggregate.getCount());
+            assertEquals(sum, aggregate.getSum(), 1e-9);
+            assertEquals(min, aggregate.getMin(), 0D);
+            assertEquals(max, aggregate.getMax(), 0D);
+        }
+    }
+}
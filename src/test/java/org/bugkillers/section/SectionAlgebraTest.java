@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.BASE_DAY;
+import static org.bugkillers.section.SectionFixtures.COMPARATOR;
+import static org.bugkillers.section.SectionFixtures.day;
+import static org.bugkillers.section.SectionFixtures.days;
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.isNormalized;
+import static org.bugkillers.section.SectionFixtures.randomMerged;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SectionAlgebra 测试
+ */
+public class SectionAlgebraTest {
+
+    /**
+     * 取较大的数据
+     */
+    private static final SectionResolver<Integer> MAX = new SectionResolver<Integer>() {
+        @Override
+        public Integer resolve(Integer left, Integer right) {
+            return Math.max(left, right);
+        }
+    };
+
+    /**
+     * 数据相同时去掉这段日期，否则取右边的数据
+     */
+    private static final SectionResolver<Integer> CHANGED = new SectionResolver<Integer>() {
+        @Override
+        public Integer resolve(Integer left, Integer right) {
+            return left.equals(right) ? null : right;
+        }
+    };
+
+    @Test
+    public void operationsMatchPerDayFixture() {
+        Random random = new Random(1L);
+        for (int i = 0; i < 2000; i++) {
+            List<Section<Integer>> left = randomMerged(random, random.nextInt(10), 60, 10, 3);
+            List<Section<Integer>> right = randomMerged(random, random.nextInt(10), 60, 10, 3);
+            List<Section<Integer>> shuffled = Lists.newArrayList(left);
+            Collections.shuffle(shuffled, random);
+
+            Map<Integer, Integer> lefts = days(left);
+            Map<Integer, Integer> rights = days(right);
+
+            assertResult(expected(lefts, rights, true, true, null), SectionAlgebra.union(shuffled, right));
+            assertResult(expected(lefts, rights, true, true, MAX), SectionAlgebra.union(shuffled, right, MAX));
+            assertResult(expected(lefts, rights, false, false, null), SectionAlgebra.intersect(shuffled, right));
+            assertResult(expected(lefts, rights, false, false, CHANGED),
+                    SectionAlgebra.intersect(shuffled, right, CHANGED));
+            assertResult(subtracted(lefts, rights), SectionAlgebra.subtract(shuffled, right));
+        }
+    }
+
+    @Test
+    public void complementMatchesPerDayFixture() {
+        Random random = new Random(2L);
+        for (int i = 0; i < 2000; i++) {
+            List<Section<Integer>> source = randomMerged(random, random.nextInt(10), 60, 10, 3);
+            int start = random.nextInt(70) - 5;
+            int end = start + random.nextInt(30);
+
+            Map<Integer, Integer> covered = days(source);
+            Map<Integer, Integer> expected = Maps.newTreeMap();
+            for (int day = BASE_DAY + start; day <= BASE_DAY + end; day++) {
+                if (!covered.containsKey(day)) {
+                    expected.put(day, 9);
+                }
+            }
+
+            assertResult(expected, SectionAlgebra.complement(source, day(start), day(end), 9, COMPARATOR));
+        }
+    }
+
+    @Test
+    public void touchingBoundaries() {
+        List<Section<Integer>> left = Lists.newArrayList(section(0, 9, 1));
+
+        assertEquals(describe(Lists.newArrayList(section(9, 9, 1))),
+                describe(SectionAlgebra.intersect(left, Lists.newArrayList(section(9, 19, 2)))));
+        assertTrue(SectionAlgebra.intersect(left, Lists.newArrayList(section(10, 19, 2))).isEmpty());
+        assertEquals(describe(Lists.newArrayList(section(0, 8, 1))),
+                describe(SectionAlgebra.subtract(left, Lists.newArrayList(section(9, 19, 2)))));
+        //相邻且数据相同的区间合并为一个
+        assertEquals(describe(Lists.newArrayList(section(0, 19, 1))),
+                describe(SectionAlgebra.union(left, Lists.newArrayList(section(10, 19, 1)))));
+    }
+
+    @Test
+    public void unchangedSectionsAreReused() {
+        Section<Integer> first = section(0, 9, 1);
+        Section<Integer> second = section(20, 29, 2);
+        List<Section<Integer>> result = SectionAlgebra.subtract(Lists.newArrayList(first, second),
+                Lists.newArrayList(section(10, 19, 3), section(25, 29, 3)));
+
+        assertEquals(2, result.size());
+        assertSame(first, result.get(0));
+        assertEquals(describe(Lists.newArrayList(section(20, 24, 2))), describe(result.subList(1, 2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsRepeatedSections() {
+        SectionAlgebra.union(Lists.newArrayList(section(0, 9, 1), section(9, 19, 2)),
+                Collections.<Section<Integer>>emptyList());
+    }
+
+    /**
+     * 每天的结果数据，resolver为null时两边都覆盖取左边的数据
+     */
+    private static Map<Integer, Integer> expected(Map<Integer, Integer> lefts, Map<Integer, Integer> rights,
+                                                  boolean leftOnly, boolean rightOnly,
+                                                  SectionResolver<Integer> resolver) {
+        Map<Integer, Integer> expected = Maps.newTreeMap();
+        for (int day : Sets.union(lefts.keySet(), rights.keySet())) {
+            Integer left = lefts.get(day);
+            Integer right = rights.get(day);
+            Integer data;
+            if (left != null && right != null) {
+                data = resolver == null ? left : resolver.resolve(left, right);
+            } else if (left != null) {
+                data = leftOnly ? left : null;
+            } else {
+                data = rightOnly ? right : null;
+            }
+            if (data != null) {
+                expected.put(day, data);
+            }
+        }
+        return expected;
+    }
+
+    private static Map<Integer, Integer> subtracted(Map<Integer, Integer> lefts, Map<Integer, Integer> rights) {
+        Map<Integer, Integer> expected = Maps.newTreeMap();
+        expected.putAll(lefts);
+        expected.keySet().removeAll(rights.keySet());
+        return expected;
+    }
+
+    private static void assertResult(Map<Integer, Integer> expected, List<Section<Integer>> result) {
+        assertEquals(expected, days(result));
+        assertTrue(isNormalized(result));
+    }
+}
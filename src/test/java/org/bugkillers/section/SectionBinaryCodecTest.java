@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.BASE_DAY;
+import static org.bugkillers.section.SectionFixtures.CODEC;
+import static org.bugkillers.section.SectionFixtures.COMPARATOR;
+import static org.bugkillers.section.SectionFixtures.day;
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.randomMerged;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * SectionBinaryCodec 测试
+ */
+public class SectionBinaryCodecTest {
+
+    private static final SectionDataCodec<String> STRING_CODEC = new SectionDataCodec<String>() {
+        @Override
+        public void write(String data, DataOutput output) throws IOException {
+            output.writeUTF(data);
+        }
+
+        @Override
+        public String read(DataInput input) throws IOException {
+            return input.readUTF();
+        }
+    };
+
+    @Test
+    public void encodeAndDecode() throws IOException {
+        SectionBinaryCodec<Integer> codec = SectionBinaryCodec.create(CODEC, COMPARATOR);
+        Random random = new Random(1L);
+        for (int i = 0; i < 2000; i++) {
+            List<Section<Integer>> sections = randomMerged(random, random.nextInt(20), 200, 10, 4);
+            assertEquals(describe(sections), describe(codec.decode(codec.encode(sections))));
+        }
+    }
+
+    @Test
+    public void dataEqualByComparatorIsKept() throws IOException {
+        SectionBinaryCodec<String> codec = SectionBinaryCodec.create(STRING_CODEC, String.CASE_INSENSITIVE_ORDER);
+        List<Section<String>> sections = Lists.newArrayList(
+                Section.build(day(0), day(0), "promo", String.CASE_INSENSITIVE_ORDER),
+                Section.build(day(2), day(2), "PROMO", String.CASE_INSENSITIVE_ORDER),
+                Section.build(day(4), day(4), "promo", String.CASE_INSENSITIVE_ORDER));
+
+        List<Section<String>> decoded = codec.decode(codec.encode(sections));
+
+        assertEquals("promo", decoded.get(0).getData());
+        assertEquals("PROMO", decoded.get(1).getData());
+        assertEquals("promo", decoded.get(2).getData());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encodeRejectsUnsorted() throws IOException {
+        SectionBinaryCodec.create(CODEC, COMPARATOR).encode(Lists.newArrayList(section(5, 9, 1), section(0, 5, 2)));
+    }
+
+    @Test
+    public void decodeRejectsNegativeCount() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(1);
+        writeVarint(output, -1);
+        assertRejected(output.toByteArray(), "illegal section count:-1");
+    }
+
+    @Test
+    public void decodeRejectsRepeatedSections() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(1);
+        writeVarint(output, 2);
+        //[BASE_DAY, BASE_DAY + 9]
+        writeVarint(output, BASE_DAY << 1);
+        writeVarint(output, 9);
+        writeVarint(output, 0);
+        output.write(new byte[4], 0, 4);
+        //左端点等于上一个区间的右端点
+        writeVarint(output, 0);
+        writeVarint(output, 1);
+        writeVarint(output, 1);
+        assertRejected(output.toByteArray(), "sections must be sorted and not repeated, index:1");
+    }
+
+    private static void assertRejected(byte[] bytes, String message) {
+        try {
+            SectionBinaryCodec.create(CODEC, COMPARATOR).decode(bytes);
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith(message));
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream output, int value) {
+        while ((value & ~0x7F) != 0) {
+            output.write(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        output.write(value);
+    }
+}
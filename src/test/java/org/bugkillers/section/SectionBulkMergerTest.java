@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.randomSections;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SectionBulkMerger 测试
+ */
+public class SectionBulkMergerTest {
+
+    @Test
+    public void mergeMatchesPerKeyMerge() {
+        Random random = new Random(1L);
+        Map<Integer, List<Section<Integer>>> source = Maps.newHashMap();
+        Map<Integer, List<Section<Integer>>> target = Maps.newHashMap();
+        for (int key = 0; key < 2000; key++) {
+            //三分之一只在source中，三分之一只在target中
+            if (key % 3 != 1) {
+                source.put(key, randomSections(random, 1 + random.nextInt(5), 40, 10, 3));
+            }
+            if (key % 3 != 0) {
+                target.put(key, randomSections(random, 1 + random.nextInt(5), 40, 10, 3));
+            }
+        }
+
+        final AtomicInteger progress = new AtomicInteger();
+        SectionBulkResult<Integer, Integer> result = SectionBulkMerger.merge(new ForkJoinPool(4), source, target,
+                false, new SectionBulkMerger.ProgressListener() {
+                    @Override
+                    public void onProgress(int completed, int total) {
+                        int current = progress.get();
+                        while (current < completed && !progress.compareAndSet(current, completed)) {
+                            current = progress.get();
+                        }
+                    }
+                });
+
+        assertTrue(result.getFailures().toString(), result.isSuccess());
+        assertEquals(2000, result.getResults().size());
+        assertEquals(2000, progress.get());
+        for (int key = 0; key < 2000; key++) {
+            List<Section<Integer>> expected;
+            if (!target.containsKey(key)) {
+                expected = LegacyMerge.mergeSelf(source.get(key));
+            } else if (!source.containsKey(key)) {
+                expected = LegacyMerge.mergeSelf(target.get(key));
+            } else {
+                expected = LegacyMerge.merge(source.get(key), target.get(key));
+            }
+            assertEquals(describe(expected), describe(result.getResults().get(key)));
+        }
+    }
+
+    @Test
+    public void sourceOnlyKeyIsMergedWithItself() {
+        Map<String, List<Section<Integer>>> source = Maps.newHashMap();
+        source.put("a", Lists.newArrayList(section(0, 9, 1), section(5, 19, 1)));
+
+        SectionBulkResult<String, Integer> result = SectionBulkMerger.merge(source,
+                Collections.<String, List<Section<Integer>>>emptyMap());
+
+        assertTrue(result.isSuccess());
+        assertEquals(describe(Lists.newArrayList(section(0, 19, 1))), describe(result.getResults().get("a")));
+    }
+
+    @Test
+    public void singleSectionResultsDoNotAliasInput() {
+        List<Section<Integer>> sourceOnly = Lists.newArrayList(section(0, 9, 1));
+        List<Section<Integer>> targetOnly = Lists.newArrayList(section(0, 9, 2));
+        Map<String, List<Section<Integer>>> source = Maps.newHashMap();
+        source.put("a", sourceOnly);
+        Map<String, List<Section<Integer>>> target = Maps.newHashMap();
+        target.put("b", targetOnly);
+
+        SectionBulkResult<String, Integer> result = SectionBulkMerger.merge(source, target);
+
+        assertNotSame(sourceOnly, result.getResults().get("a"));
+        assertNotSame(targetOnly, result.getResults().get("b"));
+        assertEquals(describe(sourceOnly), describe(result.getResults().get("a")));
+        assertEquals(describe(targetOnly), describe(result.getResults().get("b")));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * SectionDictionary 测试
+ */
+public class SectionDictionaryTest {
+
+    @Test
+    public void internByComparator() {
+        SectionDictionary<String> dictionary = SectionDictionary.create(String.CASE_INSENSITIVE_ORDER);
+
+        assertEquals(0, dictionary.intern("promo"));
+        assertEquals(1, dictionary.intern("base"));
+        assertEquals(0, dictionary.intern("PROMO"));
+        assertSame(dictionary.get(0), dictionary.canonical(new String("Promo")));
+        assertEquals(2, dictionary.size());
+        assertEquals(0, dictionary.compare("promo", "PROMO"));
+    }
+
+    @Test
+    public void mergeDoesNotCallComparator() {
+        final AtomicInteger compares = new AtomicInteger();
+        SectionDictionary<Integer> dictionary = SectionDictionary.create(new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                compares.incrementAndGet();
+                return o1.compareTo(o2);
+            }
+        });
+
+        Random random = new Random(81L);
+        List<Section<Integer>> source = sections(random, dictionary, 200);
+        List<Section<Integer>> target = sections(random, dictionary, 200);
+        SectionTimeline<Integer> timeline = SectionTimeline.of(source);
+        CompactSectionList<Integer> compact = CompactSectionList.of(source, dictionary);
+        compares.set(0);
+
+        //数据已是规范实例，merge、覆盖和转换时截取区间不查字典，判断数据相同只比较引用
+        List<Section<Integer>> merged = Section.merge(source, target);
+        timeline.apply(target);
+        compact.merge(compact).toList();
+
+        assertEquals(0, compares.get());
+        assertEquals(SectionFixtures.describe(merged), SectionFixtures.describe(timeline.toList()));
+    }
+
+    @Test
+    public void concurrentInternAssignsOneId() throws Exception {
+        final SectionDictionary<Integer> dictionary = SectionDictionary.create(SectionFixtures.COMPARATOR);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> futures = Lists.newArrayList();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(new Callable<int[]>() {
+                    @Override
+                    public int[] call() {
+                        int[] ids = new int[1000];
+                        for (int i = 0; i < ids.length; i++) {
+                            ids[i] = dictionary.intern(i);
+                            assertEquals(Integer.valueOf(i), dictionary.get(ids[i]));
+                        }
+                        return ids;
+                    }
+                }));
+            }
+            int[] expected = futures.get(0).get();
+            for (Future<int[]> future : futures) {
+                assertArrayEquals(expected, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1000, dictionary.size());
+    }
+
+    private static List<Section<Integer>> sections(Random random, SectionDictionary<Integer> dictionary, int count) {
+        List<Section<Integer>> sections = Lists.newArrayList();
+        for (Section<Integer> section : SectionFixtures.randomSections(random, count, 400, 10, 5)) {
+            sections.add(Section.build(section.getLowerPoint(), section.getUpperPoint(), section.getData(),
+                    dictionary));
+        }
+        return sections;
+    }
+}
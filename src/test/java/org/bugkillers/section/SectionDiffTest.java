@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.day;
+import static org.bugkillers.section.SectionFixtures.days;
+import static org.bugkillers.section.SectionFixtures.randomMerged;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.bugkillers.section.SectionUtil.toEpochDay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SectionDiff 测试
+ */
+public class SectionDiffTest {
+
+    @Test
+    public void diffMatchesPerDayComparison() {
+        Random random = new Random(111L);
+        for (int i = 0; i < 2000; i++) {
+            List<Section<Integer>> before = randomMerged(random, random.nextInt(10), 60, 10, 3);
+            List<Section<Integer>> after = randomMerged(random, random.nextInt(10), 60, 10, 3);
+
+            List<SectionChange<Integer>> changes = SectionDiff.diff(shuffled(before, random), after);
+
+            assertEquals(expected(before, after), expand(changes));
+            assertMaximal(changes);
+        }
+    }
+
+    @Test
+    public void addedRemovedAndReplaced() {
+        List<SectionChange<Integer>> changes = SectionDiff.diff(
+                Lists.newArrayList(section(0, 9, 1), section(20, 29, 2)),
+                Lists.newArrayList(section(0, 4, 1), section(5, 14, 3), section(20, 29, 2)));
+
+        assertEquals(2, changes.size());
+        assertChange(changes.get(0), SectionChange.Type.REPLACED, 5, 9, 1, 3);
+        assertChange(changes.get(1), SectionChange.Type.ADDED, 10, 14, null, 3);
+    }
+
+    @Test
+    public void boundarySplitsChanges() {
+        //旧区间在中间换了数据，新区间跨过旧区间的边界，变化在旧区间的边界处拆开
+        List<SectionChange<Integer>> changes = SectionDiff.diff(
+                Lists.newArrayList(section(0, 9, 1), section(10, 19, 2)),
+                Lists.newArrayList(section(5, 14, 3)));
+
+        assertEquals(4, changes.size());
+        assertChange(changes.get(0), SectionChange.Type.REMOVED, 0, 4, 1, null);
+        assertChange(changes.get(1), SectionChange.Type.REPLACED, 5, 9, 1, 3);
+        assertChange(changes.get(2), SectionChange.Type.REPLACED, 10, 14, 2, 3);
+        assertChange(changes.get(3), SectionChange.Type.REMOVED, 15, 19, 2, null);
+    }
+
+    @Test
+    public void sameTimelineHasNoChanges() {
+        List<Section<Integer>> sections = Lists.newArrayList(section(0, 9, 1), section(10, 19, 2));
+
+        assertTrue(SectionDiff.diff(sections, Lists.newArrayList(sections)).isEmpty());
+        assertTrue(SectionDiff.diff(Collections.<Section<Integer>>emptyList(),
+                Collections.<Section<Integer>>emptyList()).isEmpty());
+        //端点不同但每天的数据相同
+        assertTrue(SectionDiff.diff(Lists.newArrayList(section(0, 19, 1)),
+                Lists.newArrayList(section(0, 9, 1), section(10, 19, 1))).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsRepeatedSections() {
+        SectionDiff.diff(Lists.newArrayList(section(0, 9, 1), section(9, 19, 2)),
+                Collections.<Section<Integer>>emptyList());
+    }
+
+    /**
+     * 每天的变化：epoch day -> 类型:旧数据:新数据
+     */
+    private static Map<Integer, String> expected(List<Section<Integer>> before, List<Section<Integer>> after) {
+        Map<Integer, Integer> olds = days(before);
+        Map<Integer, Integer> news = days(after);
+        Map<Integer, String> expected = Maps.newTreeMap();
+        for (int day : Sets.union(olds.keySet(), news.keySet())) {
+            Integer oldData = olds.get(day);
+            Integer newData = news.get(day);
+            if (oldData == null) {
+                expected.put(day, describe(SectionChange.Type.ADDED, null, newData));
+            } else if (newData == null) {
+                expected.put(day, describe(SectionChange.Type.REMOVED, oldData, null));
+            } else if (!oldData.equals(newData)) {
+                expected.put(day, describe(SectionChange.Type.REPLACED, oldData, newData));
+            }
+        }
+        return expected;
+    }
+
+    private static Map<Integer, String> expand(List<SectionChange<Integer>> changes) {
+        Map<Integer, String> days = Maps.newTreeMap();
+        for (SectionChange<Integer> change : changes) {
+            for (int day = toEpochDay(change.getLowerPoint()); day <= toEpochDay(change.getUpperPoint()); day++) {
+                assertNull(days.put(day, describe(change.getType(), change.getOldData(),
+                        change.getNewData())));
+            }
+        }
+        return days;
+    }
+
+    /**
+     * 按日期排序，相连的变化类型或数据不同
+     */
+    private static void assertMaximal(List<SectionChange<Integer>> changes) {
+        for (int i = 1; i < changes.size(); i++) {
+            SectionChange<Integer> previous = changes.get(i - 1);
+            SectionChange<Integer> current = changes.get(i);
+            assertTrue(previous.getUpperPoint() < current.getLowerPoint());
+            if (toEpochDay(previous.getUpperPoint()) + 1 == toEpochDay(current.getLowerPoint())) {
+                assertFalse(previous.getType() == current.getType()
+                        && Objects.equal(previous.getOldData(), current.getOldData())
+                        && Objects.equal(previous.getNewData(), current.getNewData()));
+            }
+        }
+    }
+
+    private static void assertChange(SectionChange<Integer> change, SectionChange.Type type, int startOffset,
+                                     int endOffset, Integer oldData, Integer newData) {
+        assertEquals(type, change.getType());
+        assertEquals(day(startOffset), change.getLowerPoint());
+        assertEquals(day(endOffset), change.getUpperPoint());
+        assertEquals(oldData, change.getOldData());
+        assertEquals(newData, change.getNewData());
+    }
+
+    private static String describe(SectionChange.Type type, Integer oldData, Integer newData) {
+        return type + ":" + oldData + ":" + newData;
+    }
+
+    private static List<Section<Integer>> shuffled(List<Section<Integer>> sections, Random random) {
+        List<Section<Integer>> shuffled = Lists.newArrayList(sections);
+        Collections.shuffle(shuffled, random);
+        return shuffled;
+    }
+}
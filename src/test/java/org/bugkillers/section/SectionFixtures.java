@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.bugkillers.section.SectionUtil.toEpochDay;
+
+/**
+ * 测试数据构造和按天展开的校验工具
+ */
+final class SectionFixtures {
+
+    /**
+     * 数据比较器
+     */
+    static final Comparator<Integer> COMPARATOR = Ordering.natural();
+
+    /**
+     * 数据编解码
+     */
+    static final SectionDataCodec<Integer> CODEC = new SectionDataCodec<Integer>() {
+        @Override
+        public void write(Integer data, DataOutput output) throws IOException {
+            output.writeInt(data);
+        }
+
+        @Override
+        public Integer read(DataInput input) throws IOException {
+            return input.readInt();
+        }
+    };
+
+    /**
+     * 随机区间的起点
+     */
+    static final int BASE_DAY = toEpochDay(20151225);
+
+    private SectionFixtures() {
+
+    }
+
+    /**
+     * 第offset天（相对BASE_DAY）
+     *
+     * @param offset
+     * @return
+     */
+    static int day(int offset) {
+        return fromEpochDay(BASE_DAY + offset);
+    }
+
+    /**
+     * 构造区间
+     *
+     * @param startOffset
+     * @param endOffset
+     * @param data
+     * @return
+     */
+    static Section<Integer> section(int startOffset, int endOffset, int data) {
+        return Section.build(day(startOffset), day(endOffset), data, COMPARATOR);
+    }
+
+    /**
+     * 随机区间（可能重复），左端点在[0, span)内，长度不超过maxLength天，数据在[0, dataCount)内
+     *
+     * @param random
+     * @param count
+     * @param span
+     * @param maxLength
+     * @param dataCount
+     * @return
+     */
+    static List<Section<Integer>> randomSections(Random random, int count, int span, int maxLength, int dataCount) {
+        List<Section<Integer>> sections = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            int start = random.nextInt(span);
+            sections.add(section(start, start + random.nextInt(maxLength), random.nextInt(dataCount)));
+        }
+        return sections;
+    }
+
+    /**
+     * 随机区间自己跟自己merge后的结果（区间不重复，按左端点排序），count为0时为空
+     *
+     * @param random
+     * @param count
+     * @param span
+     * @param maxLength
+     * @param dataCount
+     * @return
+     */
+    static List<Section<Integer>> randomMerged(Random random, int count, int span, int maxLength, int dataCount) {
+        List<Section<Integer>> sections = randomSections(random, count, span, maxLength, dataCount);
+        return sections.isEmpty() ? sections : Section.merge(Collections.<Section<Integer>>emptyList(), sections);
+    }
+
+    /**
+     * 按天展开：epoch day -> 数据，后面的区间覆盖前面的区间
+     *
+     * @param sections
+     * @return
+     */
+    static Map<Integer, Integer> days(List<Section<Integer>> sections) {
+        Map<Integer, Integer> days = Maps.newTreeMap();
+        for (Section<Integer> section : sections) {
+            for (int day = toEpochDay(section.getLowerPoint()); day <= toEpochDay(section.getUpperPoint()); day++) {
+                days.put(day, section.getData());
+            }
+        }
+        return days;
+    }
+
+    /**
+     * 包含date的区间的数据，不存在返回null
+     *
+     * @param sections
+     * @param date
+     * @return
+     */
+    static Integer dataAt(List<Section<Integer>> sections, int date) {
+        for (Section<Integer> section : sections) {
+            if (section.getLowerPoint() <= date && date <= section.getUpperPoint()) {
+                return section.getData();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 区间描述（按左端点排序），用于比较结果
+     *
+     * @param sections
+     * @return
+     */
+    static List<String> describe(List<Section<Integer>> sections) {
+        List<String> descriptions = Lists.newArrayList();
+        for (Section<Integer> section : sections) {
+            descriptions.add(section.getLowerPoint() + "-" + section.getUpperPoint() + ":" + section.getData());
+        }
+        Collections.sort(descriptions);
+        return descriptions;
+    }
+
+    /**
+     * 是否为merge后的规范形式：按左端点排序、不重复，相连的区间数据不同
+     *
+     * @param sections
+     * @return
+     */
+    static boolean isNormalized(List<Section<Integer>> sections) {
+        for (int i = 1; i < sections.size(); i++) {
+            Section<Integer> previous = sections.get(i - 1);
+            Section<Integer> current = sections.get(i);
+            if (previous.getUpperPoint() >= current.getLowerPoint()) {
+                return false;
+            }
+            if (toEpochDay(previous.getUpperPoint()) + 1 == toEpochDay(current.getLowerPoint())
+                    && previous.getData().equals(current.getData())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
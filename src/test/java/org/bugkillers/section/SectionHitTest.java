@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.COMPARATOR;
+import static org.bugkillers.section.SectionFixtures.day;
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.randomMerged;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Section hit 测试
+ */
+public class SectionHitTest {
+
+    /**
+     * [0,4]:5 [5,9]:3 [15,19]:1 [25,29]:4
+     */
+    private static final List<Section<Integer>> SECTIONS = Lists.newArrayList(section(0, 4, 5), section(5, 9, 3),
+            section(15, 19, 1), section(25, 29, 4));
+
+    private static final Ordering<Integer> REVERSED = Ordering.<Integer>natural().reverse();
+
+    @Test
+    public void rangeHitReturnsNullWhenNothingOverlaps() {
+        assertNull(Section.hit(SECTIONS, COMPARATOR, day(10), day(14)));
+        assertNull(Section.hit(SECTIONS, COMPARATOR, day(30), day(40)));
+        assertNull(Section.hit(SECTIONS, COMPARATOR, day(-10), day(-1)));
+    }
+
+    @Test
+    public void rangeHitIncludesTouchingBoundaries() {
+        assertEquals(Integer.valueOf(5), Section.hit(SECTIONS, COMPARATOR, day(4), day(4)));
+        assertEquals(Integer.valueOf(1), Section.hit(SECTIONS, COMPARATOR, day(10), day(15)));
+        assertEquals(Integer.valueOf(1), Section.hit(SECTIONS, COMPARATOR, day(19), day(24)));
+        assertEquals(Integer.valueOf(4), Section.hit(SECTIONS, COMPARATOR, day(20), day(25)));
+    }
+
+    @Test
+    public void rangeHitMatchesSectionsInsideWindow() {
+        assertEquals(Integer.valueOf(1), Section.hit(SECTIONS, COMPARATOR, day(12), day(22)));
+        assertEquals(Integer.valueOf(1), Section.hit(SECTIONS, COMPARATOR, day(-5), day(35)));
+    }
+
+    @Test
+    public void rangeHitFollowsComparatorOrder() {
+        assertEquals(Integer.valueOf(3), Section.hit(SECTIONS, COMPARATOR, day(0), day(9)));
+        assertEquals(Integer.valueOf(5), Section.hit(SECTIONS, REVERSED, day(0), day(9)));
+        assertEquals(Integer.valueOf(5), Section.hit(SECTIONS, REVERSED, day(-5), day(35)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rangeHitRejectsReversedRange() {
+        Section.hit(SECTIONS, COMPARATOR, day(9), day(0));
+    }
+
+    @Test
+    public void hitAllReturnsOverlappingSections() {
+        SectionIndex<Integer> index = SectionIndex.build(SECTIONS);
+
+        assertTrue(Section.hitAll(index, day(10), day(14)).isEmpty());
+        assertTrue(Section.hitAll(index, day(30), day(40)).isEmpty());
+        assertEquals(describe(Lists.newArrayList(section(0, 4, 5))), describe(Section.hitAll(index, day(4), day(4))));
+        assertEquals(describe(Lists.newArrayList(section(5, 9, 3), section(15, 19, 1))),
+                describe(Section.hitAll(index, day(9), day(15))));
+        assertEquals(describe(SECTIONS), describe(Section.hitAll(index, day(-5), day(35))));
+    }
+
+    @Test
+    public void batchHitMatchesSingleHit() {
+        Random random = new Random(61L);
+        for (int i = 0; i < 500; i++) {
+            List<Section<Integer>> merged = randomMerged(random, 1 + random.nextInt(20), 80, 10, 4);
+            //区间无序且不支持随机访问
+            List<Section<Integer>> source = Lists.newLinkedList(merged);
+            Collections.shuffle(source, random);
+
+            //日期无序，包含所有区间之外的日期
+            int[] dates = new int[1 + random.nextInt(30)];
+            for (int j = 0; j < dates.length; j++) {
+                dates[j] = day(random.nextInt(110) - 10);
+            }
+            Integer[] results = new Integer[dates.length];
+
+            Section.hit(source, dates, results);
+
+            for (int j = 0; j < dates.length; j++) {
+                assertEquals(Section.hit(merged, dates[j], dates[j]), results[j]);
+            }
+        }
+    }
+
+    @Test
+    public void batchHitMissesOutsideSections() {
+        int[] dates = {day(40), day(12), day(-1), day(0), day(19)};
+        Integer[] results = new Integer[dates.length];
+
+        Section.hit(SECTIONS, dates, results);
+
+        assertArrayEquals(new Integer[]{null, null, null, 5, 1}, results);
+    }
+}
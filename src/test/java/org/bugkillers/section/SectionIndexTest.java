@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.COMPARATOR;
+import static org.bugkillers.section.SectionFixtures.dataAt;
+import static org.bugkillers.section.SectionFixtures.day;
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.randomMerged;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SectionIndex 测试
+ */
+public class SectionIndexTest {
+
+    @Test
+    public void hitMatchesLinearScan() {
+        Random random = new Random(31L);
+        for (int i = 0; i < 500; i++) {
+            List<Section<Integer>> merged = randomMerged(random, 1 + random.nextInt(20), 80, 10, 4);
+            SectionIndex<Integer> index = SectionIndex.build(merged);
+
+            assertEquals(merged.size(), index.size());
+            for (int offset = -2; offset < 100; offset++) {
+                assertEquals(dataAt(merged, day(offset)), index.hit(day(offset)));
+                assertEquals(dataAt(merged, day(offset)), Section.hit(index, day(offset), day(offset)));
+            }
+        }
+    }
+
+    @Test
+    public void rangeHitMatchesListHit() {
+        Random random = new Random(32L);
+        for (int i = 0; i < 500; i++) {
+            List<Section<Integer>> merged = randomMerged(random, 1 + random.nextInt(20), 80, 10, 6);
+            SectionIndex<Integer> index = SectionIndex.build(merged);
+
+            for (int j = 0; j < 20; j++) {
+                int start = random.nextInt(100) - 5;
+                int end = start + random.nextInt(15);
+                assertEquals(Section.hit(merged, COMPARATOR, day(start), day(end)),
+                        Section.hit(index, COMPARATOR, day(start), day(end)));
+                assertEquals(describe(overlaps(merged, day(start), day(end))),
+                        describe(Section.hitAll(index, day(start), day(end))));
+            }
+        }
+    }
+
+    @Test
+    public void buildSortsUnorderedInput() {
+        List<Section<Integer>> sections = Lists.newArrayList(section(20, 29, 3), section(0, 9, 1),
+                section(10, 19, 2));
+        SectionIndex<Integer> index = SectionIndex.build(sections);
+
+        assertEquals(Integer.valueOf(1), index.hit(day(9)));
+        assertEquals(Integer.valueOf(2), index.hit(day(10)));
+        assertEquals(Integer.valueOf(3), index.hit(day(29)));
+        assertNull(index.hit(day(30)));
+        assertNull(index.hit(day(-1)));
+        assertEquals(day(0), index.getSections().get(0).getLowerPoint());
+    }
+
+    @Test
+    public void overlapsTouchingBoundaries() {
+        SectionIndex<Integer> index = SectionIndex.build(Lists.newArrayList(section(0, 4, 1), section(10, 14, 2)));
+
+        assertEquals(1, index.overlaps(day(4), day(4)).size());
+        assertEquals(2, index.overlaps(day(4), day(10)).size());
+        assertTrue(index.overlaps(day(5), day(9)).isEmpty());
+        assertNull(index.hit(COMPARATOR, day(5), day(9)));
+        assertEquals(Integer.valueOf(1), index.hit(COMPARATOR, day(4), day(10)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void buildRejectsRepeatedSections() {
+        SectionIndex.build(Lists.newArrayList(section(0, 5, 1), section(5, 9, 2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void buildRejectsEmptySource() {
+        SectionIndex.build(Collections.<Section<Integer>>emptyList());
+    }
+
+    private static List<Section<Integer>> overlaps(List<Section<Integer>> sections, int startDate, int endDate) {
+        List<Section<Integer>> overlaps = Lists.newArrayList();
+        for (Section<Integer> section : sections) {
+            if (section.getLowerPoint() <= endDate && startDate <= section.getUpperPoint()) {
+                overlaps.add(section);
+            }
+        }
+        return overlaps;
+    }
+}
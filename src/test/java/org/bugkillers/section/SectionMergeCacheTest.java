@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.randomSections;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SectionMergeCache 测试
+ */
+public class SectionMergeCacheTest {
+
+    @Test
+    public void sameInputHits() {
+        SectionMergeCache<Integer> cache = SectionMergeCache.create(1000);
+        Random random = new Random(101L);
+        List<Section<Integer>> source = randomSections(random, 20, 100, 10, 3);
+        List<Section<Integer>> target = randomSections(random, 20, 100, 10, 3);
+
+        List<Section<Integer>> first = cache.merge(source, target);
+        List<Section<Integer>> second = cache.merge(Lists.newArrayList(source), Lists.newArrayList(target));
+
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(describe(Section.merge(source, target)), describe(second));
+        assertEquals(describe(first), describe(second));
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void differentInputMisses() {
+        SectionMergeCache<Integer> cache = SectionMergeCache.create(1000);
+        List<Section<Integer>> source = Lists.newArrayList(section(0, 9, 1));
+        Section<Integer> target = section(5, 14, 2);
+
+        cache.merge(source, target, true);
+        cache.merge(source, section(5, 14, 3), true);
+        cache.merge(source, section(5, 15, 2), true);
+        cache.merge(Lists.newArrayList(target), source, true);
+
+        assertEquals(0, cache.stats().hitCount());
+        assertEquals(4, cache.stats().missCount());
+    }
+
+    @Test
+    public void mergeSelfIsPartOfKey() {
+        SectionMergeCache<Integer> cache = SectionMergeCache.create(1000);
+        List<Section<Integer>> source = Lists.newArrayList(section(0, 9, 1));
+        List<Section<Integer>> target = Lists.newArrayList(section(5, 14, 2));
+        Section<Integer> single = section(5, 14, 2);
+
+        cache.merge(source, target, true);
+        cache.merge(source, target, false);
+        cache.merge(source, single, true);
+        cache.merge(source, single, false);
+        cache.merge(single, target, true);
+        cache.merge(single, target, false);
+
+        assertEquals(0, cache.stats().hitCount());
+        assertEquals(6, cache.size());
+    }
+
+    @Test
+    public void evictsBySectionCount() {
+        SectionMergeCache<Integer> cache = SectionMergeCache.create(200);
+        Random random = new Random(102L);
+
+        for (int i = 0; i < 20; i++) {
+            cache.merge(randomSections(random, 30, 100, 10, 3), randomSections(random, 30, 100, 10, 3));
+        }
+
+        //每个条目至少60个输入区间，200个区间的上限最多容纳3个
+        assertTrue(cache.size() <= 3);
+        assertTrue(cache.stats().evictionCount() >= 17);
+    }
+
+    @Test
+    public void entryLargerThanLimitIsNotKept() {
+        SectionMergeCache<Integer> cache = SectionMergeCache.create(50);
+        Random random = new Random(103L);
+        List<Section<Integer>> source = randomSections(random, 100, 500, 10, 3);
+        List<Section<Integer>> target = randomSections(random, 100, 500, 10, 3);
+
+        assertEquals(describe(Section.merge(source, target)), describe(cache.merge(source, target)));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.isNormalized;
+import static org.bugkillers.section.SectionFixtures.randomMerged;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SectionMergeIterator 测试
+ */
+public class SectionMergeIteratorTest {
+
+    @Test
+    public void streamMatchesMerge() {
+        Random random = new Random(41L);
+        for (int i = 0; i < 2000; i++) {
+            int ways = 1 + random.nextInt(5);
+            List<List<Section<Integer>>> inputs = Lists.newArrayList();
+            for (int j = 0; j < ways; j++) {
+                //每路的区间个数和跨度不同，各路在不同的位置读完，也可能为空
+                inputs.add(randomMerged(random, random.nextInt(12), 10 + random.nextInt(100), 10, 3));
+            }
+
+            List<Section<Integer>> actual = drain(inputs);
+
+            assertEquals(describe(fold(inputs)), describe(actual));
+            assertTrue(isNormalized(actual));
+        }
+    }
+
+    @Test
+    public void emptyInputsProduceNothing() {
+        List<List<Section<Integer>>> inputs = Lists.newArrayList();
+        inputs.add(Collections.<Section<Integer>>emptyList());
+        inputs.add(Collections.<Section<Integer>>emptyList());
+
+        assertTrue(drain(inputs).isEmpty());
+    }
+
+    @Test
+    public void overrideOutlivesBase() {
+        List<List<Section<Integer>>> inputs = Lists.newArrayList();
+        inputs.add(Lists.newArrayList(section(0, 9, 1)));
+        inputs.add(Lists.newArrayList(section(5, 14, 2), section(30, 39, 3)));
+
+        assertEquals(describe(Lists.newArrayList(section(0, 4, 1), section(5, 14, 2), section(30, 39, 3))),
+                describe(drain(inputs)));
+    }
+
+    @Test
+    public void baseOutlivesOverride() {
+        List<List<Section<Integer>>> inputs = Lists.newArrayList();
+        inputs.add(Lists.newArrayList(section(0, 9, 1), section(20, 29, 1)));
+        inputs.add(Lists.newArrayList(section(3, 4, 1)));
+
+        List<Section<Integer>> actual = drain(inputs);
+
+        assertEquals(describe(Lists.newArrayList(section(0, 9, 1), section(20, 29, 1))), describe(actual));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnsortedInput() {
+        List<List<Section<Integer>>> inputs = Lists.newArrayList();
+        inputs.add(Lists.newArrayList(section(10, 19, 1), section(0, 9, 2)));
+
+        drain(inputs);
+    }
+
+    @Test
+    public void hasNextIsIdempotent() {
+        Iterator<Section<Integer>> iterator = SectionMergeIterator.of(
+                Lists.newArrayList(section(0, 9, 1)).iterator());
+
+        assertTrue(iterator.hasNext());
+        assertTrue(iterator.hasNext());
+        iterator.next();
+        assertFalse(iterator.hasNext());
+    }
+
+    private static List<Section<Integer>> drain(List<List<Section<Integer>>> inputs) {
+        List<Iterator<Section<Integer>>> sources = Lists.newArrayList();
+        for (List<Section<Integer>> input : inputs) {
+            sources.add(input.iterator());
+        }
+        return Lists.newArrayList(SectionMergeIterator.of(sources));
+    }
+
+    /**
+     * 用Section.merge依次覆盖
+     */
+    private static List<Section<Integer>> fold(List<List<Section<Integer>>> inputs) {
+        List<Section<Integer>> merged = Collections.emptyList();
+        for (List<Section<Integer>> input : inputs) {
+            if (input.isEmpty()) {
+                continue;
+            }
+            merged = merged.isEmpty() ? input : Section.merge(merged, input);
+        }
+        return merged;
+    }
+}
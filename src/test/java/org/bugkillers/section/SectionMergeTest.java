@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.days;
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.isNormalized;
+import static org.bugkillers.section.SectionFixtures.randomSections;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 扫描线merge与原逐个merge的差分测试
+ */
+public class SectionMergeTest {
+
+    private static final int CASES = 20000;
+
+    @Test
+    public void mergeListsMatchesLegacyFold() {
+        Random random = new Random(1L);
+        for (int i = 0; i < CASES; i++) {
+            List<Section<Integer>> source = randomSections(random, 1 + random.nextInt(8), 40, 10, 3);
+            List<Section<Integer>> target = randomSections(random, 1 + random.nextInt(8), 40, 10, 3);
+
+            List<Section<Integer>> merged = Section.merge(source, target);
+
+            assertEquals(describe(LegacyMerge.merge(source, target)), describe(merged));
+            assertTrue(isNormalized(merged));
+        }
+    }
+
+    @Test
+    public void mergeListAndSectionMatchesLegacyFold() {
+        Random random = new Random(2L);
+        for (int i = 0; i < CASES; i++) {
+            List<Section<Integer>> source = LegacyMerge.mergeSelf(
+                    randomSections(random, 1 + random.nextInt(8), 40, 10, 3));
+            Section<Integer> target = randomSections(random, 1, 40, 10, 3).get(0);
+
+            assertEquals(describe(LegacyMerge.merge(source, target)),
+                    describe(Section.merge(source, target, false)));
+            assertEquals(describe(LegacyMerge.merge(Collections.singletonList(target), source)),
+                    describe(Section.merge(target, source, false)));
+        }
+    }
+
+    @Test
+    public void mergeSelfMatchesPerDayOverride() {
+        Random random = new Random(3L);
+        for (int i = 0; i < CASES; i++) {
+            List<Section<Integer>> sections = randomSections(random, 1 + random.nextInt(12), 60, 15, 3);
+
+            List<Section<Integer>> merged = Section.merge(Collections.<Section<Integer>>emptyList(), sections);
+
+            assertEquals(days(sections), days(merged));
+            assertTrue(isNormalized(merged));
+        }
+    }
+
+    @Test
+    public void unchangedSectionsAreReused() {
+        Section<Integer> january = section(0, 30, 1);
+        Section<Integer> march = section(60, 90, 2);
+
+        List<Section<Integer>> merged = Section.merge(Lists.newArrayList(january), Lists.newArrayList(march));
+
+        assertEquals(2, merged.size());
+        assertSame(january, merged.get(0));
+        assertSame(march, merged.get(1));
+    }
+
+    @Test
+    public void largeInputIsNotRecursive() {
+        List<Section<Integer>> source = Lists.newArrayList();
+        for (int i = 0; i < 200000; i++) {
+            source.add(section(i, i, i % 2));
+        }
+
+        List<Section<Integer>> merged = Section.merge(source, Collections.singletonList(section(5, 10, 7)), false);
+
+        assertEquals(200000 - 5, merged.size());
+        assertEquals(Integer.valueOf(7), Section.hit(merged, SectionFixtures.day(7), SectionFixtures.day(7)));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.bugkillers.section.SectionFixtures.day;
+import static org.bugkillers.section.SectionFixtures.randomSections;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SectionOverlaps 测试
+ */
+public class SectionOverlapsTest {
+
+    @Test
+    public void findAllMatchesPairwiseCheck() {
+        Random random = new Random(71L);
+        for (int i = 0; i < 1000; i++) {
+            List<Section<Integer>> sections = randomSections(random, 1 + random.nextInt(15), 60, 8, 3);
+
+            List<String> expected = pairwise(sections);
+            List<SectionOverlap<Integer>> overlaps = SectionOverlaps.findAll(sections);
+
+            assertEquals(expected, describe(overlaps));
+            assertEquals(!expected.isEmpty(), SectionOverlaps.hasOverlap(sections));
+            assertEquals(!expected.isEmpty(), Section.hasRepeat(Lists.<Section>newArrayList(sections)));
+            SectionOverlap<Integer> first = SectionOverlaps.findFirst(sections);
+            if (expected.isEmpty()) {
+                assertNull(first);
+            } else {
+                assertEquals(describe(overlaps.subList(0, 1)), describe(Collections.singletonList(first)));
+            }
+        }
+    }
+
+    @Test
+    public void touchingEndpointsOverlap() {
+        assertTrue(SectionOverlaps.hasOverlap(Lists.newArrayList(section(0, 4, 1), section(4, 9, 2))));
+        assertFalse(SectionOverlaps.hasOverlap(Lists.newArrayList(section(0, 4, 1), section(5, 9, 2))));
+        assertFalse(SectionOverlaps.hasOverlap(Lists.newArrayList(section(5, 9, 2), section(0, 4, 1))));
+
+        SectionOverlap<Integer> overlap = SectionOverlaps.findFirst(Lists.newArrayList(section(4, 9, 2),
+                section(0, 4, 1)));
+        assertEquals(day(4), overlap.getLowerPoint());
+        assertEquals(day(4), overlap.getUpperPoint());
+        assertEquals(day(0), overlap.getFirst().getLowerPoint());
+    }
+
+    @Test
+    public void containedSectionOverlaps() {
+        List<SectionOverlap<Integer>> overlaps = SectionOverlaps.findAll(Lists.newArrayList(section(0, 20, 1),
+                section(3, 5, 2), section(8, 9, 3)));
+
+        assertEquals(2, overlaps.size());
+        assertEquals(day(8), overlaps.get(1).getLowerPoint());
+        assertEquals(day(9), overlaps.get(1).getUpperPoint());
+    }
+
+    @Test
+    public void parallelMatchesSerial() {
+        Random random = new Random(72L);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int i = 0; i < 5; i++) {
+                //超过单个子任务的批量，保证会拆分
+                List<Section<Integer>> sections = randomSections(random, 10000 + random.nextInt(5000), 300000, 30,
+                        3);
+                assertEquals(describe(SectionOverlaps.findAll(sections)),
+                        describe(SectionOverlaps.findAll(sections, pool)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyInput() {
+        SectionOverlaps.hasOverlap(Collections.<Section<Integer>>emptyList());
+    }
+
+    /**
+     * 两两比较的重复区间对，按左端点稳定排序后的顺序
+     */
+    private static List<String> pairwise(List<Section<Integer>> sections) {
+        List<Section<Integer>> sorted = Lists.newArrayList(sections);
+        Collections.sort(sorted, SectionUtil.LOWER_POINT_ORDER);
+        List<String> pairs = Lists.newArrayList();
+        for (int i = 0; i < sorted.size(); i++) {
+            for (int j = i + 1; j < sorted.size(); j++) {
+                if (sorted.get(i).getUpperPoint() >= sorted.get(j).getLowerPoint()) {
+                    pairs.add(describe(sorted.get(i), sorted.get(j)));
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static List<String> describe(List<SectionOverlap<Integer>> overlaps) {
+        List<String> pairs = Lists.newArrayList();
+        for (SectionOverlap<Integer> overlap : overlaps) {
+            pairs.add(describe(overlap.getFirst(), overlap.getSecond()));
+        }
+        return pairs;
+    }
+
+    private static String describe(Section<Integer> first, Section<Integer> second) {
+        return first.getLowerPoint() + "-" + first.getUpperPoint() + ":" + first.getData() + "|"
+                + second.getLowerPoint() + "-" + second.getUpperPoint() + ":" + second.getData();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.BASE_DAY;
+import static org.bugkillers.section.SectionFixtures.days;
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.randomSections;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * SectionSnapshot 测试
+ */
+public class SectionSnapshotTest {
+
+    @Test
+    public void applyMatchesTimeline() {
+        Random random = new Random(1L);
+        for (int i = 0; i < 300; i++) {
+            //跨多个块
+            List<Section<Integer>> source = randomSections(random, 1 + random.nextInt(400), 1000, 5, 2);
+            SectionSnapshot<Integer> snapshot = SectionSnapshot.of(source);
+            SectionTimeline<Integer> timeline = SectionTimeline.of(source);
+
+            for (Section<Integer> target : randomSections(random, 1 + random.nextInt(20), 1000, 30, 3)) {
+                snapshot = snapshot.apply(target);
+                timeline.apply(target);
+            }
+
+            assertEquals(describe(timeline.toList()), describe(snapshot.toList()));
+            assertEquals(timeline.size(), snapshot.size());
+            for (int day = BASE_DAY - 1; day < BASE_DAY + 1040; day++) {
+                assertEquals(timeline.hit(fromEpochDay(day)), snapshot.hit(fromEpochDay(day)));
+            }
+        }
+    }
+
+    @Test
+    public void applyLeavesOldSnapshotUnchanged() {
+        List<Section<Integer>> source = Lists.newArrayList();
+        for (int i = 0; i < 500; i++) {
+            source.add(section(i * 2, i * 2, i % 3));
+        }
+        SectionSnapshot<Integer> before = SectionSnapshot.of(source);
+        List<String> expected = describe(before.toList());
+        Map<Integer, Integer> days = days(before.toList());
+
+        SectionSnapshot<Integer> after = before.apply(section(100, 300, 9));
+
+        assertEquals(expected, describe(before.toList()));
+        assertEquals(days, days(before.toList()));
+        assertEquals(before.version() + 1, after.version());
+        assertEquals(Integer.valueOf(9), after.hit(SectionFixtures.day(200)));
+        assertNull(before.hit(SectionFixtures.day(201)));
+    }
+
+    @Test
+    public void emptySnapshot() {
+        SectionSnapshot<Integer> empty = SectionSnapshot.empty();
+
+        assertEquals(0, empty.size());
+        assertNull(empty.hit(SectionFixtures.day(0)));
+        assertSame(SectionSnapshot.<String>empty(), SectionSnapshot.<String>empty());
+        assertEquals(Integer.valueOf(1), empty.apply(section(0, 0, 1)).hit(SectionFixtures.day(0)));
+    }
+}
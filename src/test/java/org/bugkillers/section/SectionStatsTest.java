@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.bugkillers.section.SectionFixtures.day;
+import static org.bugkillers.section.SectionFixtures.randomSections;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SectionStats 测试
+ */
+public class SectionStatsTest {
+
+    private final SectionStats stats = SectionStats.create();
+
+    @Before
+    public void install() {
+        SectionInstrumentation.install(stats);
+    }
+
+    @After
+    public void uninstall() {
+        SectionInstrumentation.uninstall();
+    }
+
+    @Test
+    public void listMergeReportsComparatorCalls() {
+        final AtomicInteger compares = new AtomicInteger();
+        Comparator<Integer> comparator = new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                compares.incrementAndGet();
+                return o1.compareTo(o2);
+            }
+        };
+
+        Random random = new Random(91L);
+        List<Section<Integer>> source = withComparator(randomSections(random, 300, 500, 10, 3), comparator);
+        List<Section<Integer>> target = withComparator(randomSections(random, 300, 500, 10, 3), comparator);
+        compares.set(0);
+
+        List<Section<Integer>> merged = Section.merge(source, target);
+
+        assertEquals(1, stats.merges());
+        assertEquals(source.size() + target.size(), stats.sectionsIn());
+        assertEquals(merged.size(), stats.sectionsOut());
+        assertTrue(stats.maxDepth() > 0);
+        assertTrue(compares.get() > 0);
+        assertEquals(compares.get(), stats.comparisons());
+        assertEquals(Long.valueOf(compares.get()), stats.toMap().get("merge.comparisons"));
+        //集合merge不逐对拆分
+        for (SectionMetrics.MergeCase mergeCase : SectionMetrics.MergeCase.values()) {
+            assertEquals(0, stats.splits(mergeCase));
+        }
+    }
+
+    @Test
+    public void pairwiseMergeReportsCase() {
+        Section.merge(section(0, 9, 1), section(5, 14, 2));
+        Section.merge(section(0, 9, 1), section(3, 5, 2));
+
+        assertEquals(1, stats.splits(SectionMetrics.MergeCase.OVERLAP_RIGHT));
+        assertEquals(2, stats.splitSections(SectionMetrics.MergeCase.OVERLAP_RIGHT));
+        assertEquals(1, stats.splits(SectionMetrics.MergeCase.CONTAINED));
+        assertEquals(3, stats.splitSections(SectionMetrics.MergeCase.CONTAINED));
+    }
+
+    @Test
+    public void hitReportsScannedSections() {
+        List<Section<Integer>> sections = Lists.newArrayList(section(0, 9, 1), section(10, 19, 2),
+                section(20, 29, 3));
+
+        Section.hit(sections, day(25), day(25));
+        SectionIndex.build(sections).hit(day(5));
+
+        assertEquals(2, stats.hits());
+        assertEquals(4, stats.hitScanned());
+        assertEquals(3, stats.maxHitScanned());
+        assertEquals(2, stats.hitLatency().count());
+    }
+
+    @Test
+    public void resetClearsCounters() {
+        Section.merge(Lists.newArrayList(section(0, 9, 1)), Lists.newArrayList(section(5, 14, 2)));
+        stats.reset();
+
+        assertEquals(0, stats.merges());
+        assertEquals(0, stats.comparisons());
+    }
+
+    private static List<Section<Integer>> withComparator(List<Section<Integer>> sections,
+                                                         Comparator<Integer> comparator) {
+        List<Section<Integer>> result = Lists.newArrayList();
+        for (Section<Integer> section : sections) {
+            result.add(Section.build(section.getLowerPoint(), section.getUpperPoint(), section.getData(),
+                    comparator));
+        }
+        return result;
+    }
+}
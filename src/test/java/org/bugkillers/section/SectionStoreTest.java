@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.bugkillers.section.SectionFixtures.BASE_DAY;
+import static org.bugkillers.section.SectionFixtures.day;
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.randomSections;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SectionStore 测试
+ */
+public class SectionStoreTest {
+
+    @Test
+    public void mergeMatchesTimelinePerKey() {
+        Random random = new Random(1L);
+        SectionStore<Integer, Integer> store = SectionStore.create();
+        Map<Integer, SectionTimeline<Integer>> timelines = Maps.newHashMap();
+
+        for (int i = 0; i < 5000; i++) {
+            Integer key = random.nextInt(50);
+            List<Section<Integer>> target = randomSections(random, 1 + random.nextInt(3), 60, 10, 3);
+
+            List<Section<Integer>> merged = store.merge(key, target);
+
+            SectionTimeline<Integer> timeline = timelines.get(key);
+            if (timeline == null) {
+                timeline = SectionTimeline.create();
+                timelines.put(key, timeline);
+            }
+            timeline.apply(target);
+            assertEquals(describe(timeline.toList()), describe(merged));
+        }
+
+        assertEquals(timelines.keySet(), store.keys());
+        for (Map.Entry<Integer, SectionTimeline<Integer>> entry : timelines.entrySet()) {
+            assertEquals(describe(entry.getValue().toList()), describe(store.get(entry.getKey())));
+            for (int day = BASE_DAY - 1; day < BASE_DAY + 72; day++) {
+                assertEquals(entry.getValue().hit(fromEpochDay(day)), store.hit(entry.getKey(), fromEpochDay(day)));
+            }
+        }
+    }
+
+    @Test
+    public void singleSectionAndRemove() {
+        SectionStore<String, Integer> store = SectionStore.create(4);
+
+        store.merge("a", section(0, 9, 1));
+        assertEquals(Integer.valueOf(1), store.hit("a", day(9)));
+        assertNull(store.hit("a", day(10)));
+        assertNull(store.hit("b", day(0)));
+
+        assertEquals(1, store.remove("a").size());
+        assertTrue(store.get("a").isEmpty());
+        assertTrue(store.remove("a").isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void mergedListIsUnmodifiable() {
+        SectionStore<String, Integer> store = SectionStore.create();
+        store.merge("a", Lists.newArrayList(section(0, 1, 1), section(5, 6, 2))).add(section(9, 9, 3));
+    }
+
+    @Test
+    public void concurrentMergesOnSameKeyAreNotLost() throws Exception {
+        final SectionStore<String, Integer> store = SectionStore.create();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = Lists.newArrayList();
+            for (int t = 0; t < 4; t++) {
+                final int writer = t;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < 300; i++) {
+                            int offset = (i * 4 + writer) * 2;
+                            store.merge("key", section(offset, offset, writer));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1200, store.get("key").size());
+        for (int i = 0; i < 1200; i++) {
+            assertEquals(Integer.valueOf(i % 4), store.hit("key", day(i * 2)));
+        }
+    }
+}
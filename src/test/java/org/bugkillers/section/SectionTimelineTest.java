@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.BASE_DAY;
+import static org.bugkillers.section.SectionFixtures.days;
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.isNormalized;
+import static org.bugkillers.section.SectionFixtures.randomSections;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SectionTimeline 测试
+ */
+public class SectionTimelineTest {
+
+    @Test
+    public void applyMatchesMerge() {
+        Random random = new Random(1L);
+        for (int i = 0; i < 2000; i++) {
+            List<Section<Integer>> source = randomSections(random, 1 + random.nextInt(10), 80, 15, 3);
+            SectionTimeline<Integer> timeline = SectionTimeline.of(source);
+            List<Section<Integer>> expected = Section.merge((Section<Integer>) null, source, true);
+
+            for (Section<Integer> target : randomSections(random, 1 + random.nextInt(10), 80, 15, 3)) {
+                timeline.apply(target);
+                expected = Section.merge(expected, target, false);
+                assertEquals(describe(expected), describe(timeline.toList()));
+            }
+            assertTrue(isNormalized(timeline.toList()));
+            assertEquals(timeline.toList().size(), timeline.size());
+        }
+    }
+
+    @Test
+    public void hitMatchesPerDayOverride() {
+        Random random = new Random(2L);
+        for (int i = 0; i < 500; i++) {
+            List<Section<Integer>> overrides = randomSections(random, 1 + random.nextInt(20), 80, 15, 4);
+            SectionTimeline<Integer> timeline = SectionTimeline.create();
+            timeline.apply(overrides);
+
+            Map<Integer, Integer> days = days(overrides);
+            for (int day = BASE_DAY - 2; day < BASE_DAY + 100; day++) {
+                assertEquals(days.get(day), timeline.hit(fromEpochDay(day)));
+            }
+        }
+    }
+
+    @Test
+    public void applyCountsModifications() {
+        SectionTimeline<Integer> timeline = SectionTimeline.create();
+        assertNull(timeline.hit(SectionFixtures.day(0)));
+
+        timeline.apply(section(0, 9, 1));
+        timeline.apply(section(10, 19, 1));
+        timeline.apply(section(3, 5, 2));
+
+        assertEquals(3, timeline.modCount());
+        assertEquals(3, timeline.size());
+        assertEquals(Integer.valueOf(2), timeline.hit(SectionFixtures.day(4)));
+        assertEquals(Integer.valueOf(1), timeline.hit(SectionFixtures.day(15)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void applyRejectsNull() {
+        SectionTimeline.<Integer>create().apply((Section<Integer>) null);
+    }
+}
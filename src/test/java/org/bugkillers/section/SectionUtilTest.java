@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import org.junit.Test;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * epoch day 编解码与 java.time 的差分测试
+ */
+public class SectionUtilTest {
+
+    private static int toDate(LocalDate date) {
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    @Test
+    public void epochDayMatchesJavaTimeOverWholeRange() {
+        LocalDate first = LocalDate.of(SectionUtil.MIN_YEAR, 1, 1);
+        LocalDate last = LocalDate.of(SectionUtil.MAX_YEAR, 12, 31);
+
+        assertEquals(first.toEpochDay(), SectionUtil.MIN_EPOCH_DAY);
+        assertEquals(last.toEpochDay(), SectionUtil.MAX_EPOCH_DAY);
+
+        for (long epochDay = first.toEpochDay(); epochDay <= last.toEpochDay(); epochDay++) {
+            int date = toDate(LocalDate.ofEpochDay(epochDay));
+            assertEquals(epochDay, SectionUtil.toEpochDay(date));
+            assertEquals(date, SectionUtil.fromEpochDay((int) epochDay));
+            assertTrue(SectionUtil.isDate(date));
+        }
+    }
+
+    @Test
+    public void isDateMatchesJavaTime() {
+        Random random = new Random(1L);
+        for (int i = 0; i < 200000; i++) {
+            int date = random.nextInt(12000) * 10000 + random.nextInt(1400);
+            assertEquals(String.valueOf(date), isLocalDate(date), SectionUtil.isDate(date));
+        }
+        assertTrue(SectionUtil.isDate(20000229));
+        assertFalse(SectionUtil.isDate(19000229));
+        assertFalse(SectionUtil.isDate(9991231));
+        assertFalse(SectionUtil.isDate(100000101));
+    }
+
+    @Test
+    public void decreaseByDaysMatchesJavaTime() {
+        Random random = new Random(2L);
+        for (int i = 0; i < 100000; i++) {
+            LocalDate date = LocalDate.ofEpochDay(SectionUtil.MIN_EPOCH_DAY + 5000
+                    + random.nextInt(SectionUtil.MAX_EPOCH_DAY - SectionUtil.MIN_EPOCH_DAY - 10000));
+            int days = random.nextInt(5000) - 2500;
+
+            assertEquals(toDate(date.minusDays(days)), SectionUtil.decreaseByDays(toDate(date), days));
+            assertEquals(days == -1, SectionUtil.isDateContinuous(toDate(date), toDate(date.minusDays(days))));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromEpochDayRejectsOutOfRange() {
+        SectionUtil.fromEpochDay(SectionUtil.MAX_EPOCH_DAY + 1);
+    }
+
+    private static boolean isLocalDate(int date) {
+        int year = date / 10000;
+        if (year < SectionUtil.MIN_YEAR || year > SectionUtil.MAX_YEAR) {
+            return false;
+        }
+        try {
+            LocalDate.of(year, date / 100 % 100, date % 100);
+            return true;
+        } catch (DateTimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.bugkillers.section.SectionFixtures.day;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SectionWriteCoalescer 测试
+ */
+public class SectionWriteCoalescerTest {
+
+    private static final int THREADS = 8;
+
+    private static final int SUBMITS = 400;
+
+    private static final int KEYS = 3;
+
+    @Test
+    public void concurrentSubmitsAreAllApplied() throws Exception {
+        ExecutorService continuation = Executors.newFixedThreadPool(2);
+        final SectionWriteCoalescer<Integer, Integer> coalescer = SectionWriteCoalescer.create(SectionStore
+                .<Integer, Integer>create(), 16, continuation);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<ListenableFuture<List<Section<Integer>>>>>> workers = Lists.newArrayList();
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                workers.add(executor.submit(new Callable<List<ListenableFuture<List<Section<Integer>>>>>() {
+                    @Override
+                    public List<ListenableFuture<List<Section<Integer>>>> call() {
+                        List<ListenableFuture<List<Section<Integer>>>> futures = Lists.newArrayList();
+                        for (int i = 0; i < SUBMITS; i++) {
+                            //每个线程写自己的天，同一线程先后两次覆盖同一天，后一次生效
+                            int offset = (i / 2 * THREADS + thread) * 2;
+                            futures.add(coalescer.submit(i % KEYS, section(offset, offset, i)));
+                        }
+                        return futures;
+                    }
+                }));
+            }
+
+            for (Future<List<ListenableFuture<List<Section<Integer>>>>> worker : workers) {
+                for (ListenableFuture<List<Section<Integer>>> future : worker.get()) {
+                    future.get(10, TimeUnit.SECONDS);
+                }
+            }
+
+            //队列在future完成后才移除，等待提交线程和续作任务结束
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            continuation.shutdown();
+            assertTrue(continuation.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+            continuation.shutdownNow();
+        }
+
+        SectionStore<Integer, Integer> store = coalescer.store();
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < SUBMITS; i++) {
+                int offset = (i / 2 * THREADS + t) * 2;
+                assertEquals(Integer.valueOf(i), store.hit(i % KEYS, day(offset)));
+            }
+        }
+        assertEquals(0, coalescer.laneCount());
+    }
+
+    @Test
+    public void futureHoldsMergeResultAndLaneIsRemoved() throws Exception {
+        SectionWriteCoalescer<String, Integer> coalescer = SectionWriteCoalescer.create(SectionStore
+                .<String, Integer>create());
+
+        List<Section<Integer>> first = coalescer.submit("a", section(0, 9, 1)).get();
+        List<Section<Integer>> second = coalescer.submit("a", Lists.newArrayList(section(5, 5, 2),
+                section(6, 6, 2))).get();
+
+        assertEquals(1, first.size());
+        assertEquals(3, second.size());
+        assertEquals(Integer.valueOf(2), coalescer.store().hit("a", day(6)));
+        assertEquals(0, coalescer.laneCount());
+    }
+
+    @Test
+    public void singleBatchTenureHandsOverToExecutor() throws Exception {
+        ExecutorService continuation = Executors.newSingleThreadExecutor();
+        try {
+            final SectionWriteCoalescer<String, Integer> coalescer = SectionWriteCoalescer.create(SectionStore
+                    .<String, Integer>create(), 1, continuation);
+            List<ListenableFuture<List<Section<Integer>>>> futures = Lists.newArrayList();
+            for (int i = 0; i < 100; i++) {
+                futures.add(coalescer.submit("a", section(i, i + 1, i)));
+            }
+
+            for (ListenableFuture<List<Section<Integer>>> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+
+            //队列在future完成后才移除，等待续作任务结束
+            continuation.shutdown();
+            assertTrue(continuation.awaitTermination(10, TimeUnit.SECONDS));
+
+            assertEquals(Integer.valueOf(99), coalescer.store().hit("a", day(100)));
+            assertEquals(Integer.valueOf(50), coalescer.store().hit("a", day(50)));
+            assertEquals(0, coalescer.laneCount());
+        } finally {
+            continuation.shutdownNow();
+        }
+    }
+}
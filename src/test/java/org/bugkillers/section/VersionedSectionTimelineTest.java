@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2015. Lorem ipsum dolor sit amet, consectetur adipiscing elit.
+ * Morbi non lorem porttitor neque feugiat blandit. Ut vitae ipsum eget quam lacinia accumsan.
+ * Etiam sed turpis ac ipsum condimentum fringilla. Maecenas magna.
+ * Proin dapibus sapien vel ante. Aliquam erat volutpat. Pellentesque sagittis ligula eget metus.
+ * Vestibulum commodo. Ut rhoncus gravida arcu.
+ */
+
+package org.bugkillers.section;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.bugkillers.section.SectionFixtures.BASE_DAY;
+import static org.bugkillers.section.SectionFixtures.dataAt;
+import static org.bugkillers.section.SectionFixtures.day;
+import static org.bugkillers.section.SectionFixtures.describe;
+import static org.bugkillers.section.SectionFixtures.randomSections;
+import static org.bugkillers.section.SectionFixtures.section;
+import static org.bugkillers.section.SectionUtil.fromEpochDay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * VersionedSectionTimeline 测试
+ */
+public class VersionedSectionTimelineTest {
+
+    @Test
+    public void everyVersionMatchesTimeline() {
+        Random random = new Random(1L);
+        for (int run = 0; run < 20; run++) {
+            List<Section<Integer>> source = randomSections(random, 1 + random.nextInt(50), 200, 10, 3);
+            VersionedSectionTimeline<Integer> versioned = VersionedSectionTimeline.of(source);
+            SectionTimeline<Integer> timeline = SectionTimeline.of(source);
+            List<List<Section<Integer>>> expected = Lists.newArrayList();
+            expected.add(timeline.toList());
+
+            int versions = VersionedSectionTimeline.CHECKPOINT_INTERVAL * 3 + random.nextInt(20);
+            for (int v = 1; v <= versions; v++) {
+                List<Section<Integer>> target = randomSections(random, 1 + random.nextInt(3), 200, 20, 5);
+                assertEquals(v, versioned.apply(target, v * 1000L));
+                timeline.apply(target);
+                expected.add(timeline.toList());
+            }
+
+            assertEquals(versions, versioned.version());
+            for (int v = 0; v <= versions; v++) {
+                assertEquals(describe(expected.get(v)), describe(versioned.toList(v)));
+                assertEquals(expected.get(v).size(), versioned.snapshot(v).size());
+                for (int day = BASE_DAY - 1; day < BASE_DAY + 222; day += 3) {
+                    assertEquals(dataAt(expected.get(v), fromEpochDay(day)), versioned.hit(v, fromEpochDay(day)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void largeOverlappingOverridesMatchTimeline() {
+        Random random = new Random(2L);
+        VersionedSectionTimeline<Integer> versioned = VersionedSectionTimeline.create();
+        SectionTimeline<Integer> timeline = SectionTimeline.create();
+        List<List<Section<Integer>>> expected = Lists.newArrayList();
+        expected.add(timeline.toList());
+
+        int versions = VersionedSectionTimeline.CHECKPOINT_INTERVAL + 5;
+        for (int v = 1; v <= versions; v++) {
+            //每个版本覆盖的区间多且互相重叠，后面的覆盖前面的
+            List<Section<Integer>> target = randomSections(random, 100 + random.nextInt(100), 300, 30, 6);
+            versioned.apply(target, v * 1000L);
+            timeline.apply(target);
+            expected.add(timeline.toList());
+        }
+
+        for (int v = 0; v <= versions; v++) {
+            for (int day = BASE_DAY - 1; day < BASE_DAY + 332; day++) {
+                assertEquals(dataAt(expected.get(v), fromEpochDay(day)), versioned.hit(v, fromEpochDay(day)));
+            }
+        }
+    }
+
+    @Test
+    public void asOfUsesLastVersionBeforeTime() {
+        VersionedSectionTimeline<Integer> timeline = VersionedSectionTimeline.create();
+        long created = timeline.timeOf(0);
+        timeline.apply(Lists.newArrayList(section(0, 9, 1)), created + 100);
+        timeline.apply(Lists.newArrayList(section(5, 5, 2)), created + 200);
+        //早于上一个版本时按上一个版本的时间记录
+        timeline.apply(Lists.newArrayList(section(6, 6, 3)), created + 150);
+
+        assertEquals(-1, timeline.versionAsOf(created - 1));
+        assertTrue(timeline.toListAsOf(created - 1).isEmpty());
+        assertNull(timeline.hitAsOf(created - 1, day(5)));
+        assertNull(timeline.hitAsOf(created + 99, day(5)));
+        assertEquals(Integer.valueOf(1), timeline.hitAsOf(created + 199, day(5)));
+        assertEquals(3, timeline.versionAsOf(created + 200));
+        assertEquals(Integer.valueOf(2), timeline.hitAsOf(created + 200, day(5)));
+        assertEquals(Integer.valueOf(3), timeline.hit(day(6)));
+        assertEquals(1, timeline.overrides(2).size());
+        assertTrue(timeline.overrides(0).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownVersion() {
+        VersionedSectionTimeline.<Integer>create().snapshot(1);
+    }
+}